@@ -6,12 +6,19 @@ import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.BikePartsService;
-import com.homeapp.backend.services.FullBikeService;
+import com.homeapp.backend.services.CatalogStoreService;
+import com.homeapp.backend.services.FanOutExecutorService;
+import com.homeapp.backend.services.LinkRefreshService;
+import com.homeapp.backend.services.QuoteCacheService;
+import com.homeapp.backend.services.QuoteTableService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * The Bike Parts Controller. Houses API for Bike Parts.
  * Used to return Bike Parts for design Bike. Complete with part name, price and link.
@@ -22,27 +29,40 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "http://localhost:3000")
 public class BikePartsController {
 
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
     private final BikePartsService bikePartsService;
-    private final FullBikeService fullBikeService;
+    private final QuoteCacheService quoteCacheService;
+    private final QuoteTableService quoteTableService;
+    private final FanOutExecutorService fanOutExecutorService;
+    private final LinkRefreshService linkRefreshService;
+    private final CatalogStoreService catalogStoreService;
 
     /**
      * Instantiates a new Bike Parts Controller.
-     * Autowires in Full Bike and Bike Parts Services to allow access to their methods.
+     * Autowires in Bike Parts, Quote Cache, Quote Table, Fan Out Executor, Link Refresh and Catalog Store Services to allow access to their methods.
      *
-     * @param bikePartsService the bike parts service
-     * @param fullBikeService  the full bike service
+     * @param bikePartsService      the bike parts service
+     * @param quoteCacheService     the quote cache service
+     * @param quoteTableService     the quote table service
+     * @param fanOutExecutorService the fan out executor service
+     * @param linkRefreshService    the link refresh service
+     * @param catalogStoreService   the catalog store service
      */
     @Autowired
-    public BikePartsController(BikePartsService bikePartsService, FullBikeService fullBikeService) {
+    public BikePartsController(BikePartsService bikePartsService, QuoteCacheService quoteCacheService, QuoteTableService quoteTableService, FanOutExecutorService fanOutExecutorService, LinkRefreshService linkRefreshService, CatalogStoreService catalogStoreService) {
         this.bikePartsService = bikePartsService;
-        this.fullBikeService = fullBikeService;
+        this.quoteCacheService = quoteCacheService;
+        this.quoteTableService = quoteTableService;
+        this.fanOutExecutorService = fanOutExecutorService;
+        this.linkRefreshService = linkRefreshService;
+        this.catalogStoreService = catalogStoreService;
     }
 
     /**
      * Gets all parts for passed-in bike.
+     * Looks the bike up in the Quote Table first, only quoting the bike when the table doesn't hold it.
      *
      * @param bike the design bike
      * @return the Bike Parts
@@ -52,8 +72,7 @@ public class BikePartsController {
     @PostMapping("GetAllParts")
     public ResponseEntity<BikeParts> getAllParts(@RequestBody FullBike bike) {
         infoLogger.log("Get Bike Parts, API");
-        fullBikeService.setBike(bike);
-        BikeParts bikeParts = bikePartsService.getBikePartsForBike();
+        BikeParts bikeParts = quoteTableService.findQuote(bike).orElseGet(() -> bikePartsService.getBikePartsForBike(bike));
         if (bikeParts.getErrorMessages().isEmpty()) {
             warnLogger.log("Returning Parts with ZERO errors!");
             return new ResponseEntity<>(bikeParts, HttpStatus.ACCEPTED);
@@ -62,4 +81,100 @@ public class BikePartsController {
             return new ResponseEntity<>(bikeParts, HttpStatus.OK);
         }
     }
+
+    /**
+     * Gets the Quote Cache counters.
+     *
+     * @return the hit, miss and eviction counts and the current cache size
+     * @return HTTP status - OK
+     */
+    @GetMapping("QuoteCacheStats")
+    public ResponseEntity<Map<String, Long>> getQuoteCacheStats() {
+        infoLogger.log("Get Quote Cache Stats, API");
+        return new ResponseEntity<>(quoteCacheService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the Quote Table counters.
+     *
+     * @return the number of configurations, build time, estimated size and lookup counts
+     * @return HTTP status - OK
+     */
+    @GetMapping("QuoteTableStats")
+    public ResponseEntity<Map<String, Long>> getQuoteTableStats() {
+        infoLogger.log("Get Quote Table Stats, API");
+        return new ResponseEntity<>(quoteTableService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the Fan Out Executor counters.
+     *
+     * @return the pool size, queue depth, in-flight steps and timeouts per stage
+     * @return HTTP status - OK
+     */
+    @GetMapping("FanOutStats")
+    public ResponseEntity<Map<String, Long>> getFanOutStats() {
+        infoLogger.log("Get Fan Out Stats, API");
+        return new ResponseEntity<>(fanOutExecutorService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the status of the background Link Refresh.
+     *
+     * @return the state, when the last refresh ran, how long it took and how many links had problems
+     * @return HTTP status - OK
+     */
+    @GetMapping("LinkRefreshStatus")
+    public ResponseEntity<Map<String, Object>> getLinkRefreshStatus() {
+        infoLogger.log("Get Link Refresh Status, API");
+        return new ResponseEntity<>(linkRefreshService.getStatus(), HttpStatus.OK);
+    }
+
+    /**
+     * Starts a Link Refresh in the background, without waiting for it to finish.
+     *
+     * @return the status of the Link Refresh
+     * @return HTTP status - ACCEPTED, or CONFLICT if a refresh is already running
+     */
+    @PostMapping("RefreshLinks")
+    public ResponseEntity<Map<String, Object>> refreshLinks() {
+        infoLogger.log("Refresh Links, API");
+        if (!linkRefreshService.requestRefresh()) {
+            warnLogger.log("Link Refresh already running");
+            return new ResponseEntity<>(linkRefreshService.getStatus(), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(linkRefreshService.getStatus(), HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * Gets every kept generation of the links file, newest first.
+     *
+     * @return the generations
+     * @return HTTP status - OK
+     */
+    @GetMapping("CatalogGenerations")
+    public ResponseEntity<List<Map<String, Object>>> getCatalogGenerations() {
+        infoLogger.log("Get Catalog Generations, API");
+        return new ResponseEntity<>(catalogStoreService.getGenerations(), HttpStatus.OK);
+    }
+
+    /**
+     * Rolls the links file back to the passed-in generation, and reloads the Parts Catalog from it.
+     *
+     * @param generation the generation
+     * @return the kept generations
+     * @return HTTP status - OK, NOT_FOUND if the generation is not kept, or CONFLICT if a Link Refresh is running or the generation could not be rolled back to
+     */
+    @PostMapping("RollbackCatalog/{generation}")
+    public ResponseEntity<List<Map<String, Object>>> rollbackCatalog(@PathVariable long generation) {
+        infoLogger.log("Rollback Catalog to generation: " + generation + ", API");
+        if (!catalogStoreService.hasGeneration(generation)) {
+            warnLogger.log("Catalog generation not kept: " + generation);
+            return new ResponseEntity<>(catalogStoreService.getGenerations(), HttpStatus.NOT_FOUND);
+        }
+        if (!linkRefreshService.rollbackCatalog(generation)) {
+            return new ResponseEntity<>(catalogStoreService.getGenerations(), HttpStatus.CONFLICT);
+        }
+        return new ResponseEntity<>(catalogStoreService.getGenerations(), HttpStatus.OK);
+    }
 }
\ No newline at end of file
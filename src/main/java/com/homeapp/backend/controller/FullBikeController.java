@@ -1,15 +1,22 @@
 package com.homeapp.backend.controller;
 
+import com.homeapp.backend.models.bike.BikePage;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.FullBikeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * The Full Bike Controller.
@@ -20,8 +27,8 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class FullBikeController {
 
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
     private final FullBikeService fullBikeService;
 
     /**
@@ -49,6 +56,52 @@ public class FullBikeController {
         return new ResponseEntity<>(bikeList, HttpStatus.ACCEPTED);
     }
 
+    /**
+     * Gets a page of bikes, in the order they were saved, keeping only those that match every filter passed in.
+     * Ask for the next page with the next cursor from this one, until it is null.
+     *
+     * @param cursor        the next cursor from the page before, none for the first page
+     * @param limit         the most bikes on the page, up to 500
+     * @param frameStyle    the frame style, none for any
+     * @param brakeType     the brake type, none for any
+     * @param handleBarType the handle bar type, none for any
+     * @return the page of bikes
+     * @return HTTP - Status OK, or BAD_REQUEST if the cursor could not be read
+     */
+    @GetMapping("GetPage")
+    public ResponseEntity<BikePage> getBikePage(@RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "50") int limit,
+                                                @RequestParam(value = "frameStyle", required = false) FrameStyle frameStyle,
+                                                @RequestParam(value = "brakeType", required = false) BrakeType brakeType,
+                                                @RequestParam(value = "handleBarType", required = false) HandleBarType handleBarType) {
+        infoLogger.log("Get page of Bikes, API");
+        Optional<BikePage> page = fullBikeService.getBikePage(cursor, limit, frameStyle, brakeType, handleBarType);
+        if (page.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        warnLogger.log("Returning page of " + page.get().getBikes().size() + " bikes to FE");
+        return new ResponseEntity<>(page.get(), HttpStatus.OK);
+    }
+
+    /**
+     * Streams every bike that matches every filter passed in, as newline delimited JSON, one bike per line, in the order they were saved.
+     * Bikes are written to the response as they are read, so the response is never held in memory whole.
+     *
+     * @param frameStyle    the frame style, none for any
+     * @param brakeType     the brake type, none for any
+     * @param handleBarType the handle bar type, none for any
+     * @return the bikes, written as the response is sent
+     * @return HTTP - Status OK
+     */
+    @GetMapping(value = "Stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBikes(@RequestParam(value = "frameStyle", required = false) FrameStyle frameStyle,
+                                                             @RequestParam(value = "brakeType", required = false) BrakeType brakeType,
+                                                             @RequestParam(value = "handleBarType", required = false) HandleBarType handleBarType) {
+        infoLogger.log("Stream Bikes, API");
+        StreamingResponseBody body = out -> fullBikeService.writeBikes(out, frameStyle, brakeType, handleBarType);
+        return new ResponseEntity<>(body, HttpStatus.OK);
+    }
+
     /**
      * Starts/returns a new bike.
      *
@@ -80,17 +133,22 @@ public class FullBikeController {
 
     /**
      * Updates Full Bike already on file.
+     * The bike must carry the version it was changed from, and is given the next version.
      *
      * @param bike the bike
-     * @return the response entity
-     * @return HTTP - Status ACCEPTED
+     * @return the updated bike, or the bike on file if it has been changed since
+     * @return HTTP - Status ACCEPTED, or CONFLICT if the bike on file has been updated or deleted since the version passed in
      */
     @PostMapping("UpdateBike")
     public ResponseEntity<FullBike> updateBike(@RequestBody FullBike bike) {
         infoLogger.log("Updating Bike, API");
-        FullBike updatedBike = fullBikeService.updateBike(bike);
+        Optional<FullBike> updatedBike = fullBikeService.updateBike(bike);
+        if (updatedBike.isEmpty()) {
+            warnLogger.log("Bike changed since version " + bike.getVersion() + ", not updating Bike: " + bike);
+            return new ResponseEntity<>(fullBikeService.getBikeUsingName(bike.getBikeName()).orElse(null), HttpStatus.CONFLICT);
+        }
         warnLogger.log("Updating Bike: " + bike);
-        return new ResponseEntity<>(updatedBike, HttpStatus.ACCEPTED);
+        return new ResponseEntity<>(updatedBike.get(), HttpStatus.ACCEPTED);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.homeapp.backend.models.bike.Image;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import com.homeapp.backend.services.ImageService;
+import com.homeapp.backend.services.QuoteTableService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,19 +22,22 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class ImageController {
 
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
     private final ImageService imageService;
+    private final QuoteTableService quoteTableService;
 
     /**
      * Instantiates a new Image controller.
-     * Autowires in a Full Bike Service for access to the methods.
+     * Autowires in the Image and Quote Table Services for access to the methods.
      *
-     * @param imageService the image service
+     * @param imageService      the image service
+     * @param quoteTableService the quote table service
      */
     @Autowired
-    public ImageController(ImageService imageService) {
+    public ImageController(ImageService imageService, QuoteTableService quoteTableService) {
         this.imageService = imageService;
+        this.quoteTableService = quoteTableService;
     }
 
     /**
@@ -46,7 +50,7 @@ public class ImageController {
     @PostMapping("GetImages")
     public ResponseEntity<List<Image>> getImages(@RequestBody FullBike bike) {
         infoLogger.log("Getting Images for Bike: " + bike);
-        List<Image> imageList = imageService.getImages(bike);
+        List<Image> imageList = quoteTableService.findImages(bike).orElseGet(() -> imageService.getImages(bike));
         warnLogger.log("Returning Images to FE: " + imageList);
         return new ResponseEntity<>(imageList, HttpStatus.OK);
     }
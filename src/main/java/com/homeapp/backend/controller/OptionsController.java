@@ -19,8 +19,8 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "http://localhost:3000")
 public class OptionsController {
 
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
     private final OptionsService optionsService;
 
     /**
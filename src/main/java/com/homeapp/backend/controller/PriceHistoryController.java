@@ -0,0 +1,96 @@
+package com.homeapp.backend.controller;
+
+import com.homeapp.backend.models.bike.PricePoint;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.services.PriceHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The Price History Controller. Houses API for the price history of Bike Parts.
+ * Used to chart how a part's price has changed over time, without checking the retailers again.
+ * Times are in epoch milliseconds and prices in pence.
+ */
+@RestController
+@RequestMapping("PriceHistory/")
+@CrossOrigin(origins = "http://localhost:3000")
+public class PriceHistoryController {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final PriceHistoryService priceHistoryService;
+
+    /**
+     * Instantiates a new Price History Controller.
+     * Autowires in a Price History Service to allow access to its methods.
+     *
+     * @param priceHistoryService the price history service
+     */
+    @Autowired
+    public PriceHistoryController(PriceHistoryService priceHistoryService) {
+        this.priceHistoryService = priceHistoryService;
+    }
+
+    /**
+     * Gets the internal references of every part with a price history.
+     *
+     * @return the internal references
+     * @return HTTP status - OK
+     */
+    @GetMapping("Parts")
+    public ResponseEntity<Set<String>> getParts() {
+        infoLogger.log("Get Price History Parts, API");
+        return new ResponseEntity<>(priceHistoryService.getReferences(), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the prices seen for a part between two times, all time if no times are passed-in.
+     *
+     * @param internalReference the part's internal reference
+     * @param from              the earliest time
+     * @param to                the latest time
+     * @return the prices in time order
+     * @return HTTP status - OK, or NOT_FOUND if the part has no price history
+     */
+    @GetMapping("{internalReference}")
+    public ResponseEntity<List<PricePoint>> getHistory(@PathVariable(value = "internalReference") String internalReference,
+                                                       @RequestParam(value = "from", defaultValue = "0") long from,
+                                                       @RequestParam(value = "to", defaultValue = "" + Long.MAX_VALUE) long to) {
+        infoLogger.log("Get Price History, API");
+        if (!priceHistoryService.hasHistory(internalReference)) {
+            warnLogger.log("No Price History for: " + internalReference);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(priceHistoryService.getHistory(internalReference, from, to), HttpStatus.OK);
+    }
+
+    /**
+     * Gets the lowest, highest and average price seen for a part between two times, all time if no times are passed-in.
+     *
+     * @param internalReference the part's internal reference
+     * @param from              the earliest time
+     * @param to                the latest time
+     * @return the count, minPence, maxPence, avgPence, firstMillis and lastMillis
+     * @return HTTP status - OK, or NOT_FOUND if no prices were seen for the part in the window
+     */
+    @GetMapping("{internalReference}/Summary")
+    public ResponseEntity<Map<String, Long>> getSummary(@PathVariable(value = "internalReference") String internalReference,
+                                                        @RequestParam(value = "from", defaultValue = "0") long from,
+                                                        @RequestParam(value = "to", defaultValue = "" + Long.MAX_VALUE) long to) {
+        infoLogger.log("Get Price History Summary, API");
+        Optional<Map<String, Long>> summary = priceHistoryService.getSummary(internalReference, from, to);
+        if (summary.isEmpty()) {
+            warnLogger.log("No Price History for: " + internalReference);
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(summary.get(), HttpStatus.OK);
+    }
+}
@@ -21,8 +21,8 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class StickyNoteController {
 
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
     private final StickyNoteService stickyNoteService;
 
     /**
@@ -22,9 +22,9 @@ import java.util.ArrayList;
 @CrossOrigin(origins = "http://localhost:3000")
 public class TestController {
     private final SaveJokeService saveJokeService = new SaveJokeService();
-    private final InfoLoggerFE infoLogger = new InfoLoggerFE();
-    private final WarnLoggerFE warnLogger = new WarnLoggerFE();
-    private final ErrorLoggerFE errorLogger = new ErrorLoggerFE();
+    private final InfoLoggerFE infoLogger = InfoLoggerFE.getInstance();
+    private final WarnLoggerFE warnLogger = WarnLoggerFE.getInstance();
+    private final ErrorLoggerFE errorLogger = ErrorLoggerFE.getInstance();
 
     /**
      * Instantiates a new Test controller.
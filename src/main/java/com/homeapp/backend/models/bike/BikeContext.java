@@ -0,0 +1,191 @@
+package com.homeapp.backend.models.bike;
+
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
+import com.homeapp.backend.models.bike.Enums.ShifterStyle;
+
+/**
+ * The Bike Context object, used to carry a single quote through the parts pipeline.
+ * Holds a snapshot of the design choices from the bike being quoted, which never changes once taken,
+ * and the Bike Parts being collected for this quote only.
+ * Each component lookup reads the snapshot rather than a shared bike, so any number of quotes can run at once.
+ * Once the quote is finished the context is closed, and any part or error from a lookup that ran past its stage's timeout is dropped.
+ */
+public final class BikeContext {
+
+    private final FrameStyle frameStyle;
+    private final boolean discBrakeCompatible;
+    private final BrakeType brakeType;
+    private final HandleBarType handleBarType;
+    private final long numberOfFrontGears;
+    private final long numberOfRearGears;
+    private final ShifterStyle shifterStyle;
+    private final String wheelPreference;
+    private final BikeParts bikeParts = new BikeParts();
+    private boolean closed;
+
+    private BikeContext(FullBike bike) {
+        this.frameStyle = bike.getFrame().getFrameStyle();
+        this.discBrakeCompatible = bike.getFrame().isDiscBrakeCompatible();
+        this.brakeType = bike.getBrakeType();
+        this.handleBarType = bike.getHandleBarType();
+        this.numberOfFrontGears = bike.getNumberOfFrontGears();
+        // 3 by Shimano Gears are restricted to a maximum of 10 at the back
+        if (bike.getNumberOfFrontGears() == 3 && bike.getNumberOfRearGears() > 10) {
+            this.numberOfRearGears = 10;
+        } else {
+            this.numberOfRearGears = bike.getNumberOfRearGears();
+        }
+        this.shifterStyle = bike.getShifterStyle();
+        this.wheelPreference = bike.getWheelPreference();
+    }
+
+    /**
+     * Takes a snapshot of the passed-in bike, ready to be quoted.
+     * Later changes to the bike do not change the context.
+     *
+     * @param bike the bike
+     * @return the bike context
+     */
+    public static BikeContext of(FullBike bike) {
+        return new BikeContext(bike);
+    }
+
+    /**
+     * Adds a part to the Bike Parts for this quote.
+     * Parts are added from several threads at once, so the add is synchronized on the list of parts.
+     * Once the context is closed, the part is dropped.
+     *
+     * @param part the part
+     */
+    public void addPart(Part part) {
+        synchronized (bikeParts.getListOfParts()) {
+            if (!closed) {
+                bikeParts.getListOfParts().add(part);
+            }
+        }
+    }
+
+    /**
+     * Adds an error to the Bike Parts for this quote.
+     * Errors are added from several threads at once, so the add is synchronized on the list of errors.
+     * Once the context is closed, the error is dropped.
+     *
+     * @param error the error
+     */
+    public void addError(Error error) {
+        synchronized (bikeParts.getErrorMessages()) {
+            if (!closed) {
+                bikeParts.getErrorMessages().add(error);
+            }
+        }
+    }
+
+    /**
+     * Closes the context once the quote is finished, so no lookup still running can change the Bike Parts after they are handed back.
+     * Takes both list locks, so any add in progress is finished first, and the Bike Parts can then be read without locking.
+     */
+    public void close() {
+        synchronized (bikeParts.getListOfParts()) {
+            synchronized (bikeParts.getErrorMessages()) {
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Gets the Bike Parts collected for this quote.
+     *
+     * @return the bike parts
+     */
+    public BikeParts getBikeParts() {
+        return bikeParts;
+    }
+
+    /**
+     * Gets frame style.
+     *
+     * @return the frame style
+     */
+    public FrameStyle getFrameStyle() {
+        return frameStyle;
+    }
+
+    /**
+     * Is disc brake compatible boolean.
+     *
+     * @return the boolean
+     */
+    public boolean isDiscBrakeCompatible() {
+        return discBrakeCompatible;
+    }
+
+    /**
+     * Gets brake type.
+     *
+     * @return the brake type
+     */
+    public BrakeType getBrakeType() {
+        return brakeType;
+    }
+
+    /**
+     * Gets handle bar type.
+     *
+     * @return the handle bar type
+     */
+    public HandleBarType getHandleBarType() {
+        return handleBarType;
+    }
+
+    /**
+     * Gets number of front gears.
+     *
+     * @return the number of front gears
+     */
+    public long getNumberOfFrontGears() {
+        return numberOfFrontGears;
+    }
+
+    /**
+     * Gets number of rear gears.
+     *
+     * @return the number of rear gears
+     */
+    public long getNumberOfRearGears() {
+        return numberOfRearGears;
+    }
+
+    /**
+     * Gets shifter style.
+     *
+     * @return the shifter style
+     */
+    public ShifterStyle getShifterStyle() {
+        return shifterStyle;
+    }
+
+    /**
+     * Gets wheel preference.
+     *
+     * @return the wheel preference
+     */
+    public String getWheelPreference() {
+        return wheelPreference;
+    }
+
+    @Override
+    public String toString() {
+        return "BikeContext{" +
+                "frameStyle=" + frameStyle +
+                ", discBrakeCompatible=" + discBrakeCompatible +
+                ", brakeType=" + brakeType +
+                ", handleBarType=" + handleBarType +
+                ", numberOfFrontGears=" + numberOfFrontGears +
+                ", numberOfRearGears=" + numberOfRearGears +
+                ", shifterStyle=" + shifterStyle +
+                ", wheelPreference='" + wheelPreference + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package com.homeapp.backend.models.bike;
+
+import java.util.List;
+
+/**
+ * The Bike Page object. One page of saved Full Bikes, in the order they were saved, along with the cursor to ask for the next page with.
+ * The cursor marks the last bike on this page, so bikes saved or removed while paging do not shift the pages still to come.
+ */
+public final class BikePage {
+
+    private final List<FullBike> bikes;
+    private final String nextCursor;
+
+    /**
+     * Instantiates a new Bike Page.
+     *
+     * @param bikes      the bikes
+     * @param nextCursor the cursor for the next page, or null if there are no more bikes
+     */
+    public BikePage(List<FullBike> bikes, String nextCursor) {
+        this.bikes = bikes;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the bikes on this page.
+     *
+     * @return the bikes
+     */
+    public List<FullBike> getBikes() {
+        return bikes;
+    }
+
+    /**
+     * Gets the cursor to ask for the next page with.
+     *
+     * @return the next cursor, or null if there are no more bikes
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "BikePage{" +
+                "bikes=" + bikes.size() +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -1,5 +1,9 @@
 package com.homeapp.backend.models.bike;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import javax.persistence.*;
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -8,8 +12,10 @@ import java.util.List;
 /**
  * The Bike Parts object, a collection of parts used to create a total bike price.
  * Used as a transfer object with FE to take relevant information about bike build, like price and error messages.
+ * The total is held as Money, and only turned into a decimal when it is sent to FE.
  */
 @Entity
+@JsonPropertyOrder({"bikePartsId", "listOfParts", "totalBikePrice", "totalPriceAsString", "errorMessages"})
 public class BikeParts {
 
     @Id
@@ -20,7 +26,9 @@ public class BikeParts {
     @OneToMany
     private List<Part> listOfParts;
 
-    private BigDecimal totalBikePrice;
+    @Transient
+    @JsonIgnore
+    private Money total;
 
     private String totalPriceAsString = "";
 
@@ -35,6 +43,20 @@ public class BikeParts {
         this.listOfParts = new ArrayList<>();
     }
 
+    /**
+     * Instantiates a new Bike parts as a copy of the passed-in Bike Parts.
+     * Each Part is copied, so changes to the copy do not affect the original.
+     *
+     * @param bikeParts the bike parts to copy
+     */
+    public BikeParts(BikeParts bikeParts) {
+        this.listOfParts = new ArrayList<>(bikeParts.listOfParts.size());
+        bikeParts.listOfParts.forEach(p -> this.listOfParts.add(new Part(p)));
+        this.total = bikeParts.total;
+        this.totalPriceAsString = bikeParts.totalPriceAsString;
+        this.errorMessages = new ArrayList<>(bikeParts.errorMessages);
+    }
+
     /**
      * Gets bike parts id.
      *
@@ -83,10 +105,11 @@ public class BikeParts {
     /**
      * Gets total bike price.
      *
-     * @return the total bike price
+     * @return the total bike price, or null if it has not been worked out
      */
+    @JsonProperty("totalBikePrice")
     public BigDecimal getTotalBikePrice() {
-        return totalBikePrice;
+        return total == null ? null : total.toBigDecimal();
     }
 
     /**
@@ -94,8 +117,27 @@ public class BikeParts {
      *
      * @param totalBikePrice the total bike price
      */
+    @JsonProperty("totalBikePrice")
     public void setTotalBikePrice(BigDecimal totalBikePrice) {
-        this.totalBikePrice = totalBikePrice;
+        this.total = totalBikePrice == null ? null : Money.of(totalBikePrice);
+    }
+
+    /**
+     * Gets total bike price as Money.
+     *
+     * @return the total, or null if it has not been worked out
+     */
+    public Money getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets total bike price as Money.
+     *
+     * @param total the total
+     */
+    public void setTotal(Money total) {
+        this.total = total;
     }
 
     /**
@@ -121,7 +163,7 @@ public class BikeParts {
         return "BikeParts{" +
                 "bikePartsId=" + bikePartsId +
                 "listOfParts=" + listOfParts +
-                ", totalBikePrice=" + totalBikePrice +
+                ", totalBikePrice=" + getTotalBikePrice() +
                 ", totalPriceAsString=" + totalPriceAsString +
                 ", errorMessages=" + errorMessages +
                 '}';
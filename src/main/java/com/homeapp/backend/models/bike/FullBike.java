@@ -51,6 +51,10 @@ public class FullBike {
     @Column
     private String wheelPreference;
 
+    @Version
+    @Column
+    private long version;
+
     /**
      * Instantiates a new Full bike.
      */
@@ -260,6 +264,25 @@ public class FullBike {
         this.wheelPreference = wheelPreference;
     }
 
+    /**
+     * Gets version, the number of times the bike has been updated since it was saved.
+     * An update must carry the version it was made from, and is turned down if the saved bike has been updated since.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets version.
+     *
+     * @param version the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "FullBike{" +
@@ -273,6 +296,7 @@ public class FullBike {
                 ", numberOfRearGears=" + numberOfRearGears +
                 ", shifterStyle=" + shifterStyle +
                 ", wheelPreference=" + wheelPreference +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
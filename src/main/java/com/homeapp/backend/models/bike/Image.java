@@ -5,6 +5,7 @@ import javax.persistence.*;
 /**
  * The Image object. Contains all the information the FE needs to display correct image.
  * Image files are stored in FE project.
+ * Images are never changed once built, so the same instance is shared by every bike that shows it.
  */
 @Entity
 public class Image {
@@ -60,15 +61,6 @@ public class Image {
         return place;
     }
 
-    /**
-     * Sets place.
-     *
-     * @param place the place
-     */
-    public void setPlace(long place) {
-        this.place = place;
-    }
-
     /**
      * Gets component.
      *
@@ -78,15 +70,6 @@ public class Image {
         return component;
     }
 
-    /**
-     * Sets component.
-     *
-     * @param component the component
-     */
-    public void setComponent(String component) {
-        this.component = component;
-    }
-
     /**
      * Gets src.
      *
@@ -96,15 +79,6 @@ public class Image {
         return src;
     }
 
-    /**
-     * Sets src.
-     *
-     * @param src the src
-     */
-    public void setSrc(String src) {
-        this.src = src;
-    }
-
     /**
      * Gets alt text.
      *
@@ -114,15 +88,6 @@ public class Image {
         return altText;
     }
 
-    /**
-     * Sets alt text.
-     *
-     * @param altText the alt text
-     */
-    public void setAltText(String altText) {
-        this.altText = altText;
-    }
-
     @Override
     public String toString() {
         return "Image{" +
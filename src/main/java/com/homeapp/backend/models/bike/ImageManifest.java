@@ -0,0 +1,139 @@
+package com.homeapp.backend.models.bike;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The Image Manifest object. Holds every image the FE can show, read once from a manifest resource file.
+ * Each image is keyed by its slot followed by the design choices it is for, separated by ":", e.g. "Chain:11" or "Frame:ROAD:Disc".
+ * Looking up an image returns the entry for the most specific key that exists, falling back to the slot's own entry.
+ * The same Image instances are returned to every caller, so a lookup builds no new objects or Strings.
+ * New images can be added to the manifest without code changes, as long as they are keyed by existing design choices.
+ */
+public final class ImageManifest {
+
+    private final Node root;
+    private final int size;
+
+    private ImageManifest(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Loads the manifest from the passed-in classpath resource.
+     *
+     * @param resource the resource name
+     * @return the image manifest
+     * @throws IOException if the resource cannot be found or read
+     */
+    public static ImageManifest load(String resource) throws IOException {
+        try (InputStream in = ImageManifest.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Image manifest not found: " + resource);
+            }
+            JsonNode entries = new ObjectMapper().readTree(in);
+            Node root = new Node();
+            Iterator<Map.Entry<String, JsonNode>> it = entries.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                JsonNode i = entry.getValue();
+                Node node = root;
+                for (String segment : entry.getKey().split(":")) {
+                    node = node.children.computeIfAbsent(toKey(segment), k -> new Node());
+                }
+                node.image = new Image(i.get("place").asLong(), i.get("component").asText(), i.get("src").asText(), i.get("altText").asText());
+            }
+            root.freeze();
+            return new ImageManifest(root, entries.size());
+        }
+    }
+
+    /**
+     * Gets the number of images in the manifest.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds the image for the passed-in slot.
+     *
+     * @param slot the slot
+     * @return the image, or null if the slot is not in the manifest
+     */
+    public Image find(String slot) {
+        Node node = root.children.get(slot);
+        return node == null ? null : node.image;
+    }
+
+    /**
+     * Finds the most specific image for the passed-in slot and design choice.
+     *
+     * @param slot   the slot
+     * @param choice the design choice, a String, enum or number of gears
+     * @return the image, or null if the slot is not in the manifest
+     */
+    public Image find(String slot, Object choice) {
+        return find(slot, choice, null);
+    }
+
+    /**
+     * Finds the most specific image for the passed-in slot and design choices.
+     *
+     * @param slot   the slot
+     * @param choice the first design choice, a String, enum or number of gears
+     * @param detail the second design choice, a String, enum or number of gears
+     * @return the image, or null if the slot is not in the manifest
+     */
+    public Image find(String slot, Object choice, Object detail) {
+        Node node = root.children.get(slot);
+        if (node == null) {
+            return null;
+        }
+        Image best = node.image;
+        node = node.children.get(toKey(choice));
+        if (node != null) {
+            if (node.image != null) {
+                best = node.image;
+            }
+            node = detail == null ? null : node.children.get(toKey(detail));
+            if (node != null && node.image != null) {
+                best = node.image;
+            }
+        }
+        return best;
+    }
+
+    private static Object toKey(Object choice) {
+        if (choice instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (choice instanceof Number n) {
+            return n.longValue();
+        }
+        if (choice instanceof String s && !s.isEmpty() && s.chars().allMatch(Character::isDigit)) {
+            return Long.valueOf(s);
+        }
+        return choice;
+    }
+
+    private static final class Node {
+        private Map<Object, Node> children = new HashMap<>();
+        private Image image;
+
+        private void freeze() {
+            children.values().forEach(Node::freeze);
+            children = Collections.unmodifiableMap(children);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.homeapp.backend.models.bike;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The Money object. An amount held as a whole number of the currency's minor units, e.g. pence, along with its currency.
+ * Prices are read into Money once, when a Part is loaded or scraped, so adding up a quote is plain long arithmetic with nothing to parse or allocate.
+ * Written out as pounds and pence, e.g. "1799.90", so the links file and the API look the same as when prices were held as text.
+ * Never changes once made, so it can be shared between copies of a Part.
+ */
+public final class Money {
+
+    /**
+     * The currency every retailer price is in.
+     */
+    public static final Currency GBP = Currency.getInstance("GBP");
+    private static final int MAX_DIGITS = 15;
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Makes Money from a whole number of minor units.
+     *
+     * @param minorUnits the amount, in minor units
+     * @param currency   the currency
+     * @return the money
+     */
+    public static Money of(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Makes Money in pounds from a decimal amount, rounding any fraction of a penny up.
+     *
+     * @param amount the amount, in pounds
+     * @return the money
+     */
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact(), GBP);
+    }
+
+    /**
+     * Reads Money in pounds from price text, in a single pass with no regular expressions.
+     * Currency signs, thousands separators and spaces are skipped, e.g. "£1,799.9" is 179990 pence.
+     * Any fraction of a penny is rounded up, as the quote totals always have.
+     *
+     * @param text the price text
+     * @return the money, or empty if the text has no digits before its decimal point, or too many to hold
+     */
+    public static Optional<Money> parse(CharSequence text) {
+        if (text == null) {
+            return Optional.empty();
+        }
+        long pounds = 0;
+        int poundDigits = 0;
+        int pence = 0;
+        int penceDigits = 0;
+        boolean roundUp = false;
+        boolean afterPoint = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                afterPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                if (!afterPoint) {
+                    if (++poundDigits > MAX_DIGITS) {
+                        return Optional.empty();
+                    }
+                    pounds = pounds * 10 + (c - '0');
+                } else if (penceDigits < 2) {
+                    pence = pence * 10 + (c - '0');
+                    penceDigits++;
+                } else if (c != '0') {
+                    roundUp = true;
+                }
+            }
+        }
+        if (poundDigits == 0) {
+            return Optional.empty();
+        }
+        for (; penceDigits < 2; penceDigits++) {
+            pence *= 10;
+        }
+        return Optional.of(new Money(pounds * 100 + pence + (roundUp ? 1 : 0), GBP));
+    }
+
+    /**
+     * Gets the amount, in minor units.
+     *
+     * @return the minor units
+     */
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * Gets the currency.
+     *
+     * @return the currency
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Gets the amount as a decimal, with two decimal places.
+     *
+     * @return the big decimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    /**
+     * Gets the amount as plain text, as held in the links file, e.g. "1799.90".
+     *
+     * @return the plain string
+     */
+    public String toPlainString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Gets the amount formatted for display on FE, e.g. "£1,799.90".
+     *
+     * @return the formatted amount
+     */
+    public String format() {
+        NumberFormat format = NumberFormat.getCurrencyInstance(Locale.UK);
+        format.setCurrency(currency);
+        return format.format(toBigDecimal());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money that)) {
+            return false;
+        }
+        return minorUnits == that.minorUnits && currency.equals(that.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
@@ -1,14 +1,20 @@
 package com.homeapp.backend.models.bike;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 
 /**
  * The Part object, for a single complete Bike part.
+ * The price is held as Money, read once from the price text when the Part is loaded, and written back out as the same text.
  */
 @Entity
+@JsonPropertyOrder({"internalReference", "component", "name", "price", "link", "dateLastUpdated", "etag", "lastModified", "isUpToDate"})
 public class Part {
 
     @Id
@@ -21,8 +27,9 @@ public class Part {
     @JsonProperty("name")
     private String name;
 
-    @JsonProperty("price")
-    private String price;
+    @Transient
+    @JsonIgnore
+    private Money money;
 
     @JsonProperty("link")
     private String link;
@@ -30,6 +37,14 @@ public class Part {
     @JsonProperty("dateLastUpdated")
     private String dateLastUpdated;
 
+    @JsonProperty("etag")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String etag;
+
+    @JsonProperty("lastModified")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String lastModified;
+
     @JsonProperty("isUpToDate")
     private boolean isUpToDate;
 
@@ -68,12 +83,25 @@ public class Part {
         this.component = component;
         this.internalReference = internalReference;
         this.name = name;
-        this.price = price;
+        setPrice(price);
         this.link = link;
         this.dateLastUpdated = dateLastUpdated;
         this.isUpToDate = isUpToDate;
     }
 
+    /**
+     * Instantiates a new Part as a copy of the passed-in Part.
+     * Used to hand out Parts from the shared catalog without exposing the catalog's own instances.
+     *
+     * @param part the part to copy
+     */
+    public Part(Part part) {
+        this(part.component, part.internalReference, part.name, null, part.link, part.dateLastUpdated, part.isUpToDate);
+        this.money = part.money;
+        this.etag = part.etag;
+        this.lastModified = part.lastModified;
+    }
+
     /**
      * Gets component.
      *
@@ -129,21 +157,42 @@ public class Part {
     }
 
     /**
-     * Gets price.
+     * Gets price, in pounds and pence, e.g. "1799.90".
      *
-     * @return the price
+     * @return the price, or null if the Part has no price
      */
+    @JsonProperty("price")
     public String getPrice() {
-        return price;
+        return money == null ? null : money.toPlainString();
     }
 
     /**
-     * Sets price.
+     * Sets price from price text, e.g. "£1,799.9".
+     * Text with no price in it leaves the Part with no price.
      *
      * @param price the price
      */
+    @JsonProperty("price")
     public void setPrice(String price) {
-        this.price = price;
+        this.money = Money.parse(price).orElse(null);
+    }
+
+    /**
+     * Gets price as Money.
+     *
+     * @return the money, or null if the Part has no price
+     */
+    public Money getMoney() {
+        return money;
+    }
+
+    /**
+     * Sets price as Money.
+     *
+     * @param money the money
+     */
+    public void setMoney(Money money) {
+        this.money = money;
     }
 
     /**
@@ -182,6 +231,42 @@ public class Part {
         this.dateLastUpdated = dateLastUpdated;
     }
 
+    /**
+     * Gets etag, the ETag the retailer sent with the page the price was last read from.
+     *
+     * @return the etag
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Sets etag.
+     *
+     * @param etag the etag
+     */
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    /**
+     * Gets lastModified, the Last-Modified date the retailer sent with the page the price was last read from.
+     *
+     * @return the lastModified
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Sets lastModified.
+     *
+     * @param lastModified the lastModified
+     */
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
     /**
      * Gets isUpToDate.
      *
@@ -206,7 +291,7 @@ public class Part {
                 "component='" + component + '\'' +
                 ", internalReference='" + internalReference + '\'' +
                 ", name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", link='" + link + '\'' +
                 ", dateLastUpdated='" + dateLastUpdated + '\'' +
                 ", isUpToDate='" + isUpToDate + '\'' +
@@ -0,0 +1,64 @@
+package com.homeapp.backend.models.bike;
+
+/**
+ * The Price Point object. A single price seen for a Part, and when it was seen.
+ * Held as primitives, the time in epoch milliseconds and the price in pence, so a long history takes little memory.
+ */
+public final class PricePoint {
+
+    private final long epochMillis;
+    private final long pence;
+
+    /**
+     * Instantiates a new Price Point.
+     *
+     * @param epochMillis the time the price was seen, in epoch milliseconds
+     * @param pence       the price, in pence
+     */
+    public PricePoint(long epochMillis, long pence) {
+        this.epochMillis = epochMillis;
+        this.pence = pence;
+    }
+
+    /**
+     * Gets the time the price was seen, in epoch milliseconds.
+     *
+     * @return the epoch millis
+     */
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Gets the price, in pence.
+     *
+     * @return the pence
+     */
+    public long getPence() {
+        return pence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PricePoint that)) {
+            return false;
+        }
+        return epochMillis == that.epochMillis && pence == that.pence;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(epochMillis) * 31 + Long.hashCode(pence);
+    }
+
+    @Override
+    public String toString() {
+        return "PricePoint{" +
+                "epochMillis=" + epochMillis +
+                ", pence=" + pence +
+                '}';
+    }
+}
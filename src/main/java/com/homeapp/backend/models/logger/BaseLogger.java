@@ -1,11 +1,24 @@
 package com.homeapp.backend.models.logger;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.TreeSet;
 
 /**
  * The Abstract Base logger.
  * Used to ensure all Loggers have the same methods, through class extension.
+ * Log lines are handed to the shared Log Appender, which appends them to the day's file on its own thread.
  */
 public abstract class BaseLogger {
     /**
@@ -16,38 +29,116 @@ public abstract class BaseLogger {
      * The File name formatter. Used to create a String for the date, which becomes part of the DTOLog file name. Using Iso standard of MM-dd-yyyy to help store files in correct order.
      */
     static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ISO_DATE;
+    /**
+     * The log file extension. Each line of a log file is a single JSON string.
+     */
+    static final String LOG_FILE_EXTENSION = ".ndjson";
+    /**
+     * The extension of log files written before the Log Appender, each is a single JSON array of strings.
+     */
+    static final String LEGACY_LOG_FILE_EXTENSION = ".json";
+    private static final ObjectMapper om = new ObjectMapper();
+    private final LogAppender appender = LogAppender.getInstance();
 
     /**
      * Instantiates a new Base logger.
-     * Each time a logger is Instantiated it runs the readLogsFile and overrides the TreeSet logs.
+     * Loggers no longer read the day's file when created, so they are cheap to create.
      */
     public BaseLogger() {
     }
 
     /**
-     * Read logs file and returns a tree set.
+     * Gets the level name, used as the suffix of the log file name, e.g. INFO or ERROR-FE.
      *
-     * @return the tree set
+     * @return the level name
      */
-    protected abstract TreeSet<String> readLogsFile();
+    protected abstract String getLevel();
 
     /**
-     * Gets file name.
+     * DTOLog the passed in String
      *
-     * @return the file name
+     * @param message the message
      */
-    protected abstract String getFileName();
+    protected abstract void log(String message);
 
     /**
-     * DTOLog to file, writes log message out to the correct file
+     * Gets file name for today's log file.
+     *
+     * @return the file name
      */
-    protected abstract void logToFile();
+    protected String getFileName() {
+        return getFileName(LocalDate.now(), LOG_FILE_EXTENSION);
+    }
 
+    private String getFileName(LocalDate date, String extension) {
+        return appender.getDirectory() + date.format(FILE_NAME_FORMATTER) + "_" + getLevel() + extension;
+    }
 
     /**
-     * DTOLog the passed in String
+     * Splits the passed-in message on "!!" and stamps the message with the current time.
      *
      * @param message the message
+     * @return the lines to log
      */
-    protected abstract void log(String message);
+    protected List<String> toLines(String message) {
+        message = "[" + LocalDateTime.now().format(LOGS_STAMP_FORMATTER) + "] - " + message;
+        return Arrays.stream(message.split("!!")).toList();
+    }
+
+    /**
+     * DTOLog to file, hands the lines to the Log Appender to be written out to the correct file.
+     *
+     * @param lines the lines
+     */
+    protected void logToFile(List<String> lines) {
+        appender.append(getFileName(), lines);
+    }
+
+    /**
+     * Blocks until everything logged so far has been written to file.
+     */
+    public void flush() {
+        appender.flush();
+    }
+
+    /**
+     * Read today's logs file and returns a tree set.
+     *
+     * @return the tree set
+     */
+    protected TreeSet<String> readLogsFile() {
+        return readLogsFile(LocalDate.now());
+    }
+
+    /**
+     * Read the logs for the passed-in day and returns a tree set.
+     * Reads both the newline-delimited file and any older JSON array file for the same day.
+     *
+     * @param date the day
+     * @return the tree set
+     */
+    public TreeSet<String> readLogsFile(LocalDate date) {
+        TreeSet<String> logs = new TreeSet<>();
+        try {
+            File legacyFile = new File(getFileName(date, LEGACY_LOG_FILE_EXTENSION));
+            if (legacyFile.exists() && legacyFile.length() > 0) {
+                logs.addAll(om.readValue(legacyFile, new TypeReference<List<String>>() {
+                }));
+            }
+            File file = new File(getFileName(date, LOG_FILE_EXTENSION));
+            if (file.exists()) {
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            logs.add(om.readValue(line, String.class));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(e);
+        }
+        return logs;
+    }
 }
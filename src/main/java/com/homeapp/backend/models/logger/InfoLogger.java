@@ -1,71 +1,33 @@
 package com.homeapp.backend.models.logger;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.stereotype.Service;
-
-import java.io.File;
-import java.io.IOException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
-import java.util.TreeSet;
-
 /**
  * The Info logger. Used primarily to record the actions being taken through the project.
  */
-@Service
 public class InfoLogger extends BaseLogger {
-    private final ObjectMapper om = new ObjectMapper();
-    private final TreeSet<String> logs;
+    private static final InfoLogger INSTANCE = new InfoLogger();
 
     /**
      * Instantiates a new Info logger.
      */
-    public InfoLogger() {
-        this.logs = readLogsFile();
-    }
-
-    @Override
-    protected TreeSet<String> readLogsFile() {
-        try {
-            File file = new File(getFileName());
-            if (!file.exists()) {
-                file.createNewFile();
-            }
-            if (file.length() == 0) {
-                return new TreeSet<>();
-            }
-            return om.readValue(file, new TypeReference<>() {
-            });
-        } catch (IOException e) {
-            System.err.println(e);
-            throw new RuntimeException(e);
-        }
+    private InfoLogger() {
     }
 
-    @Override
-    protected String getFileName() {
-        return "src/main/logs/" + LocalDate.now().format(FILE_NAME_FORMATTER) + "_INFO.json";
+    /**
+     * Gets the shared Info logger, every component logging at this level uses the same instance.
+     *
+     * @return the info logger
+     */
+    public static InfoLogger getInstance() {
+        return INSTANCE;
     }
 
     @Override
-    protected void logToFile() {
-        try {
-            om.writeValue(new File(getFileName()), logs);
-        } catch (IOException e) {
-            System.err.println(e);
-        }
+    protected String getLevel() {
+        return "INFO";
     }
 
     @Override
     public void log(String message) {
-        synchronized (this) {
-            message = "[" + LocalDateTime.now().format(LOGS_STAMP_FORMATTER) + "] - " + message;
-            List<String> m = Arrays.stream(message.split("!!")).toList();
-            logs.addAll(m);
-            logToFile();
-        }
+        logToFile(toLines(message));
     }
 }
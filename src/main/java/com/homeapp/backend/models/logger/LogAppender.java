@@ -0,0 +1,251 @@
+package com.homeapp.backend.models.logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Log Appender. The single back end that every Logger writes through.
+ * Callers put log lines on a bounded, lock-free queue and return straight away.
+ * A single writer thread drains the queue in batches and appends each line, as a JSON string, to the end of the day's log file.
+ * Settings are read from the "logs." keys in application.properties, any matching System property overrides the file.
+ */
+public final class LogAppender {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private static final LogAppender INSTANCE = new LogAppender(Settings.load());
+    private final ConcurrentLinkedQueue<LogRecord> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long reportedDropped = 0;
+    private final Settings settings;
+    private final Thread writer;
+
+    private LogAppender(Settings settings) {
+        this.settings = settings;
+        this.writer = new Thread(this::drainLoop, "log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-writer-shutdown"));
+    }
+
+    /**
+     * Gets the shared Log Appender.
+     *
+     * @return the log appender
+     */
+    public static LogAppender getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Appends the passed-in lines to the passed-in log file.
+     * Does not wait for the lines to be written, when the queue is full the overflow policy decides what happens.
+     *
+     * @param fileName the log file name
+     * @param lines    the lines to append
+     */
+    public void append(String fileName, List<String> lines) {
+        for (String line : lines) {
+            offer(new LogRecord(fileName, line));
+        }
+        if (queueSize.get() >= settings.batchSize) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Blocks until every line queued before this call has been written to file.
+     */
+    public void flush() {
+        long target = enqueued.get();
+        while (written.get() < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Gets the number of lines dropped because the queue was full.
+     *
+     * @return the dropped count
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of lines waiting to be written.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    /**
+     * Gets the directory log files are written to.
+     *
+     * @return the logs directory
+     */
+    public String getDirectory() {
+        return settings.directory;
+    }
+
+    private void offer(LogRecord logRecord) {
+        while (true) {
+            int size = queueSize.get();
+            if (size < settings.queueCapacity) {
+                if (queueSize.compareAndSet(size, size + 1)) {
+                    queue.offer(logRecord);
+                    enqueued.incrementAndGet();
+                    return;
+                }
+                continue;
+            }
+            switch (settings.overflowPolicy) {
+                case DROP_NEWEST -> {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                case DROP_OLDEST -> {
+                    if (queue.poll() != null) {
+                        queueSize.decrementAndGet();
+                        written.incrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                }
+                case BLOCK -> {
+                    LockSupport.unpark(writer);
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(settings.batchSize);
+        while (true) {
+            LogRecord logRecord;
+            while (batch.size() < settings.batchSize && (logRecord = queue.poll()) != null) {
+                queueSize.decrementAndGet();
+                batch.add(logRecord);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(settings.flushIntervalMs));
+                continue;
+            }
+            writeBatch(batch);
+            written.addAndGet(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<LogRecord> batch) {
+        Map<String, List<String>> linesByFile = new LinkedHashMap<>();
+        for (LogRecord logRecord : batch) {
+            linesByFile.computeIfAbsent(logRecord.fileName, f -> new ArrayList<>()).add(logRecord.line);
+        }
+        linesByFile.forEach((fileName, lines) -> {
+            Path path = Paths.get(fileName);
+            try {
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                try (BufferedWriter w = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String line : lines) {
+                        w.write(om.writeValueAsString(line));
+                        w.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+        });
+        long droppedSoFar = dropped.get();
+        if (droppedSoFar > reportedDropped) {
+            System.err.println("Log queue was full, " + (droppedSoFar - reportedDropped) + " log lines dropped");
+            reportedDropped = droppedSoFar;
+        }
+    }
+
+    /**
+     * What to do with a new log line when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Drop the new line, the caller never waits.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest queued line to make room for the new one.
+         */
+        DROP_OLDEST,
+        /**
+         * Wait for the writer thread to make room.
+         */
+        BLOCK
+    }
+
+    private static final class LogRecord {
+        private final String fileName;
+        private final String line;
+
+        private LogRecord(String fileName, String line) {
+            this.fileName = fileName;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Log Appender settings, read once at start-up.
+     */
+    private static final class Settings {
+        private final String directory;
+        private final int queueCapacity;
+        private final int batchSize;
+        private final long flushIntervalMs;
+        private final OverflowPolicy overflowPolicy;
+
+        private Settings(Properties p) {
+            this.directory = p.getProperty("logs.directory", "src/main/logs/");
+            this.queueCapacity = Integer.parseInt(p.getProperty("logs.queue-capacity", "65536"));
+            this.batchSize = Integer.parseInt(p.getProperty("logs.batch-size", "512"));
+            this.flushIntervalMs = Long.parseLong(p.getProperty("logs.flush-interval-ms", "200"));
+            this.overflowPolicy = OverflowPolicy.valueOf(p.getProperty("logs.overflow-policy", "DROP_NEWEST"));
+        }
+
+        private static Settings load() {
+            Properties p = new Properties();
+            try (InputStream in = LogAppender.class.getResourceAsStream("/application.properties")) {
+                if (in != null) {
+                    p.load(in);
+                }
+            } catch (IOException e) {
+                System.err.println(e);
+            }
+            for (String key : List.of("logs.directory", "logs.queue-capacity", "logs.batch-size", "logs.flush-interval-ms", "logs.overflow-policy")) {
+                String value = System.getProperty(key);
+                if (value != null) {
+                    p.setProperty(key, value);
+                }
+            }
+            return new Settings(p);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.homeapp.backend.models.logger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The Logger Configuration.
+ * Registers the shared Logger instances as Spring beans, so injected Loggers and static Loggers are the same objects.
+ */
+@Configuration
+public class LoggerConfiguration {
+
+    /**
+     * The shared Info logger.
+     *
+     * @return the info logger
+     */
+    @Bean
+    public InfoLogger infoLogger() {
+        return InfoLogger.getInstance();
+    }
+
+    /**
+     * The shared Warn logger.
+     *
+     * @return the warn logger
+     */
+    @Bean
+    public WarnLogger warnLogger() {
+        return WarnLogger.getInstance();
+    }
+
+    /**
+     * The shared Error logger.
+     *
+     * @return the error logger
+     */
+    @Bean
+    public ErrorLogger errorLogger() {
+        return ErrorLogger.getInstance();
+    }
+
+    /**
+     * The shared FE Info logger.
+     *
+     * @return the FE info logger
+     */
+    @Bean
+    public InfoLoggerFE infoLoggerFE() {
+        return InfoLoggerFE.getInstance();
+    }
+
+    /**
+     * The shared FE Warn logger.
+     *
+     * @return the FE warn logger
+     */
+    @Bean
+    public WarnLoggerFE warnLoggerFE() {
+        return WarnLoggerFE.getInstance();
+    }
+
+    /**
+     * The shared FE Error logger.
+     *
+     * @return the FE error logger
+     */
+    @Bean
+    public ErrorLoggerFE errorLoggerFE() {
+        return ErrorLoggerFE.getInstance();
+    }
+}
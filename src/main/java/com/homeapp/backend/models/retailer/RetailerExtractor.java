@@ -0,0 +1,55 @@
+package com.homeapp.backend.models.retailer;
+
+import org.jsoup.nodes.Document;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Retailer Extractor. Reads a Part's name and price from one retailer's product page.
+ * Each retailer has its own extractor, picked by the host of the Part's link, so adding a new shop only needs a new extractor.
+ * Extractors are shared by every crawler thread, so they must not change once made.
+ */
+public interface RetailerExtractor {
+
+    /**
+     * Gets the retailer's name, used in logs.
+     *
+     * @return the retailer
+     */
+    String getRetailer();
+
+    /**
+     * Gets the hosts the retailer's pages are served from, without the leading www.
+     *
+     * @return the hosts
+     */
+    List<String> getHosts();
+
+    /**
+     * Reads the name and price from the passed-in product page.
+     *
+     * @param page the page
+     * @return the scraped part, or empty if the page does not have the layout expected for this retailer
+     */
+    Optional<ScrapedPart> extract(Document page);
+
+    /**
+     * Can this extractor read the name and price straight from the HTML, without building a DOM.
+     *
+     * @return the boolean
+     */
+    default boolean canStream() {
+        return false;
+    }
+
+    /**
+     * Reads the name and price straight from the passed-in HTML, stopping as soon as they have been found.
+     *
+     * @param html the page's HTML
+     * @return the scraped part, or empty if this extractor cannot stream or the name and price were not found
+     */
+    default Optional<ScrapedPart> extractStreaming(String html) {
+        return Optional.empty();
+    }
+}
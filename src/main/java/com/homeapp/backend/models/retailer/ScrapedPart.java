@@ -0,0 +1,87 @@
+package com.homeapp.backend.models.retailer;
+
+import com.homeapp.backend.models.bike.Money;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The Scraped Part object. Holds the name and price read from a retailer's page for a single Part.
+ * Never changes once made, so it can be handed between the crawler's threads freely.
+ */
+public final class ScrapedPart {
+
+    private final String name;
+    private final Money price;
+
+    private ScrapedPart(String name, Money price) {
+        this.name = name;
+        this.price = price;
+    }
+
+    /**
+     * Makes a Scraped Part from the text found on a retailer's page.
+     * The price text is read into Money, e.g. "£1,799.9" becomes 179990 pence.
+     *
+     * @param name      the name text
+     * @param priceText the price text, including any currency sign
+     * @return the scraped part, or empty if the name is blank or the price has no digits
+     */
+    public static Optional<ScrapedPart> of(String name, String priceText) {
+        if (name == null || name.isBlank() || priceText == null) {
+            return Optional.empty();
+        }
+        return Money.parse(priceText).map(price -> new ScrapedPart(name.trim(), price));
+    }
+
+    /**
+     * Gets name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets price, in pounds and pence, e.g. "1799.90".
+     *
+     * @return the price
+     */
+    public String getPrice() {
+        return price.toPlainString();
+    }
+
+    /**
+     * Gets price as Money.
+     *
+     * @return the money
+     */
+    public Money getMoney() {
+        return price;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ScrapedPart that)) {
+            return false;
+        }
+        return name.equals(that.name) && price.equals(that.price);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, price);
+    }
+
+    @Override
+    public String toString() {
+        return "ScrapedPart{" +
+                "name='" + name + '\'' +
+                ", price='" + getPrice() + '\'' +
+                '}';
+    }
+}
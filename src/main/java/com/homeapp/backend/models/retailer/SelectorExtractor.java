@@ -0,0 +1,114 @@
+package com.homeapp.backend.models.retailer;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The Selector Extractor. Reads a Part's name and price from a retailer's page using CSS selectors.
+ * The selectors are compiled once, when the extractor is made, rather than on every page.
+ * The name and price are looked for inside the product block when one is given, otherwise anywhere on the page.
+ * When more than one price selector is given, the first that finds any text is used, e.g. a sale price before the normal price.
+ * When every selector is simple enough, the name and price can also be read in a single pass over the HTML, without building a DOM.
+ */
+public final class SelectorExtractor implements RetailerExtractor {
+
+    private final String retailer;
+    private final List<String> hosts;
+    private final Evaluator productBlock;
+    private final Evaluator name;
+    private final List<Evaluator> prices;
+    private final StreamingPageScanner scanner;
+
+    private SelectorExtractor(String retailer, List<String> hosts, String productBlock, String name, String... prices) {
+        this.retailer = retailer;
+        this.hosts = List.copyOf(hosts);
+        this.productBlock = productBlock == null ? null : QueryParser.parse(productBlock);
+        this.name = QueryParser.parse(name);
+        this.prices = Arrays.stream(prices).map(QueryParser::parse).toList();
+        this.scanner = StreamingPageScanner.of(productBlock, name, prices).orElse(null);
+    }
+
+    /**
+     * Makes a new Selector Extractor.
+     *
+     * @param retailer     the retailer
+     * @param hosts        the hosts the retailer's pages are served from
+     * @param productBlock the selector for the block holding the name and price, or null for the whole page
+     * @param name         the selector for the name
+     * @param prices       the selectors for the price, tried in order
+     * @return the selector extractor
+     */
+    public static SelectorExtractor of(String retailer, List<String> hosts, String productBlock, String name, String... prices) {
+        return new SelectorExtractor(retailer, hosts, productBlock, name, prices);
+    }
+
+    /**
+     * Gets the extractors for every retailer the Parts Catalog links to.
+     *
+     * @return the built-in extractors
+     */
+    public static List<RetailerExtractor> builtIn() {
+        return List.of(
+                of("Dolan", List.of("dolan-bikes.com"), "div.productBuy > div.productPanel", "h1", "div.price span.price"),
+                of("Evans", List.of("evanscycles.com"), "#productDetails", "#lblProductName", "#lblSellingPrice"),
+                of("Wiggle", List.of("wiggle.com", "wiggle.co.uk"), "#productDetails", "#lblProductName", "#lblSellingPrice"),
+                of("Chain Reaction Cycles", List.of("chainreactioncycles.com"), "#productDetails", "#lblProductName", "#lblSellingPrice"),
+                of("Halfords", List.of("halfords.com"), "#productInfoBlock", "h1", "div.price span.b-price__sale"),
+                of("SJS Cycles", List.of("sjscycles.co.uk"), null, "title", "#ProductOptions div.pl2-notnarrow div.container-2-3-stackSM span.f-xxxlarge"),
+                of("Halo", List.of("halowheels.com"), "div.productDetails", "h1", "div.priceSummary ins span", "div.priceSummary span"));
+    }
+
+    @Override
+    public String getRetailer() {
+        return retailer;
+    }
+
+    @Override
+    public List<String> getHosts() {
+        return hosts;
+    }
+
+    @Override
+    public Optional<ScrapedPart> extract(Document page) {
+        Element block = productBlock == null ? page : page.selectFirst(productBlock);
+        if (block == null) {
+            return Optional.empty();
+        }
+        Element nameElement = block.selectFirst(name);
+        if (nameElement == null) {
+            return Optional.empty();
+        }
+        for (Evaluator price : prices) {
+            Element priceElement = block.selectFirst(price);
+            if (priceElement != null && !priceElement.text().isBlank()) {
+                return ScrapedPart.of(nameElement.text(), priceElement.text());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean canStream() {
+        return scanner != null;
+    }
+
+    @Override
+    public Optional<ScrapedPart> extractStreaming(String html) {
+        return scanner == null ? Optional.empty() : scanner.scan(html);
+    }
+
+    @Override
+    public String toString() {
+        return "SelectorExtractor{" +
+                "retailer='" + retailer + '\'' +
+                ", hosts=" + hosts +
+                ", canStream=" + canStream() +
+                '}';
+    }
+}
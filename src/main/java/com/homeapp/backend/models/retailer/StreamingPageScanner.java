@@ -0,0 +1,343 @@
+package com.homeapp.backend.models.retailer;
+
+import org.jsoup.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The Streaming Page Scanner. Reads a Part's name and price from a retailer's page in a single pass over the HTML, without building a DOM.
+ * Keeps only the stack of open elements, and stops reading as soon as the name and best price have been found,
+ * which on most product pages is well before the end of the page.
+ * Only simple selectors are supported: tags, ids and classes, joined by spaces. Extractors with any other selector use the full DOM instead.
+ */
+final class StreamingPageScanner {
+
+    private static final Set<String> VOID_ELEMENTS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr");
+    private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("script", "style", "textarea", "title");
+    private static final Set<String> DATA_ELEMENTS = Set.of("script", "style");
+    private final Step[] name;
+    private final Step[][] prices;
+
+    private StreamingPageScanner(Step[] name, Step[][] prices) {
+        this.name = name;
+        this.prices = prices;
+    }
+
+    /**
+     * Makes a scanner for the passed-in selectors, if they are all simple enough to be read in a single pass.
+     *
+     * @param productBlock the selector for the block holding the name and price, or null for the whole page
+     * @param name         the selector for the name
+     * @param prices       the selectors for the price, tried in order
+     * @return the scanner, or empty if any selector needs the full DOM
+     */
+    static Optional<StreamingPageScanner> of(String productBlock, String name, String... prices) {
+        List<Step> block = productBlock == null ? List.of() : parse(productBlock);
+        List<Step> nameSteps = parse(name);
+        if (block == null || nameSteps == null) {
+            return Optional.empty();
+        }
+        Step[][] priceSteps = new Step[prices.length][];
+        for (int i = 0; i < prices.length; i++) {
+            List<Step> steps = parse(prices[i]);
+            if (steps == null) {
+                return Optional.empty();
+            }
+            priceSteps[i] = join(block, steps);
+        }
+        return Optional.of(new StreamingPageScanner(join(block, nameSteps), priceSteps));
+    }
+
+    private static Step[] join(List<Step> block, List<Step> steps) {
+        List<Step> chain = new ArrayList<>(block);
+        chain.addAll(steps);
+        return chain.toArray(new Step[0]);
+    }
+
+    private static List<Step> parse(String selector) {
+        List<Step> steps = new ArrayList<>();
+        for (String part : selector.trim().split("\\s+")) {
+            if (!part.matches("[a-zA-Z][a-zA-Z0-9-]*(#[\\w-]+)?(\\.[\\w-]+)*|(#[\\w-]+)(\\.[\\w-]+)*|(\\.[\\w-]+)+")) {
+                return null;
+            }
+            String tag = null;
+            String id = null;
+            List<String> classes = new ArrayList<>();
+            for (String token : part.split("(?=[#.])")) {
+                if (token.startsWith("#")) {
+                    id = token.substring(1);
+                } else if (token.startsWith(".")) {
+                    classes.add(token.substring(1));
+                } else {
+                    tag = token.toLowerCase(Locale.ROOT);
+                }
+            }
+            steps.add(new Step(tag, id, classes.toArray(new String[0])));
+        }
+        return steps;
+    }
+
+    /**
+     * Scans the passed-in page for the name and price.
+     *
+     * @param html the page
+     * @return the scraped part, or empty if the name or price was not found
+     */
+    Optional<ScrapedPart> scan(String html) {
+        Capture nameCapture = new Capture(name);
+        Capture[] priceCaptures = new Capture[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            priceCaptures[i] = new Capture(prices[i]);
+        }
+        Capture[] captures = new Capture[prices.length + 1];
+        captures[0] = nameCapture;
+        System.arraycopy(priceCaptures, 0, captures, 1, prices.length);
+        List<Element> stack = new ArrayList<>();
+        int i = 0;
+        int n = html.length();
+        while (i < n && !isFound(nameCapture, priceCaptures)) {
+            int lt = html.indexOf('<', i);
+            int textEnd = lt < 0 ? n : lt;
+            if (textEnd > i) {
+                appendText(captures, html, i, textEnd);
+            }
+            if (lt < 0) {
+                break;
+            }
+            if (html.startsWith("<!--", lt)) {
+                int end = html.indexOf("-->", lt + 4);
+                i = end < 0 ? n : end + 3;
+            } else if (lt + 1 < n && (html.charAt(lt + 1) == '!' || html.charAt(lt + 1) == '?')) {
+                int end = html.indexOf('>', lt);
+                i = end < 0 ? n : end + 1;
+            } else if (lt + 1 < n && html.charAt(lt + 1) == '/') {
+                int end = html.indexOf('>', lt);
+                String tag = html.substring(lt + 2, end < 0 ? n : end).trim().toLowerCase(Locale.ROOT);
+                closeElement(stack, captures, tag);
+                i = end < 0 ? n : end + 1;
+            } else if (lt + 1 < n && Character.isLetter(html.charAt(lt + 1))) {
+                i = openElement(html, lt, stack, captures);
+            } else {
+                appendText(captures, html, lt, lt + 1);
+                i = lt + 1;
+            }
+        }
+        if (!nameCapture.isDone()) {
+            return Optional.empty();
+        }
+        for (Capture price : priceCaptures) {
+            if (price.isDone() && !price.text.isEmpty()) {
+                return ScrapedPart.of(nameCapture.text, price.text);
+            }
+        }
+        // Elements left open at the end of the page still count, as they would in the DOM
+        for (Capture price : priceCaptures) {
+            if (price.depth > 0) {
+                price.finish();
+                if (!price.text.isEmpty()) {
+                    return ScrapedPart.of(nameCapture.text, price.text);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private boolean isFound(Capture nameCapture, Capture[] priceCaptures) {
+        if (!nameCapture.isDone()) {
+            return false;
+        }
+        for (Capture price : priceCaptures) {
+            if (!price.isDone()) {
+                return false;
+            }
+            if (!price.text.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int openElement(String html, int lt, List<Element> stack, Capture[] captures) {
+        int n = html.length();
+        int i = lt + 1;
+        while (i < n && !Character.isWhitespace(html.charAt(i)) && html.charAt(i) != '>' && html.charAt(i) != '/') {
+            i++;
+        }
+        String tag = html.substring(lt + 1, i).toLowerCase(Locale.ROOT);
+        String id = null;
+        String[] classes = new String[0];
+        boolean selfClosing = false;
+        while (i < n && html.charAt(i) != '>') {
+            char c = html.charAt(i);
+            if (c == '/') {
+                selfClosing = true;
+                i++;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else {
+                int nameStart = i;
+                while (i < n && !Character.isWhitespace(html.charAt(i)) && "=>/".indexOf(html.charAt(i)) < 0) {
+                    i++;
+                }
+                String attribute = html.substring(nameStart, i).toLowerCase(Locale.ROOT);
+                String value = "";
+                while (i < n && Character.isWhitespace(html.charAt(i))) {
+                    i++;
+                }
+                if (i < n && html.charAt(i) == '=') {
+                    i++;
+                    while (i < n && Character.isWhitespace(html.charAt(i))) {
+                        i++;
+                    }
+                    if (i < n && (html.charAt(i) == '"' || html.charAt(i) == '\'')) {
+                        int end = html.indexOf(html.charAt(i), i + 1);
+                        value = html.substring(i + 1, end < 0 ? n : end);
+                        i = end < 0 ? n : end + 1;
+                    } else {
+                        int valueStart = i;
+                        while (i < n && !Character.isWhitespace(html.charAt(i)) && html.charAt(i) != '>') {
+                            i++;
+                        }
+                        value = html.substring(valueStart, i);
+                    }
+                }
+                if (attribute.equals("id")) {
+                    id = value.trim();
+                } else if (attribute.equals("class")) {
+                    classes = value.trim().split("\\s+");
+                }
+                selfClosing = false;
+            }
+        }
+        i = Math.min(n, i + 1);
+        stack.add(new Element(tag, id, classes));
+        for (Capture capture : captures) {
+            if (capture.depth == 0 && !capture.isDone() && matches(capture.chain, stack)) {
+                capture.depth = stack.size();
+            }
+        }
+        if (selfClosing || VOID_ELEMENTS.contains(tag)) {
+            closeElement(stack, captures, tag);
+        } else if (RAW_TEXT_ELEMENTS.contains(tag)) {
+            int end = indexOfIgnoreCase(html, "</" + tag, i);
+            int textEnd = end < 0 ? n : end;
+            // Script and style bodies are data, not text, so they are left out just as the full DOM's text() leaves them out
+            if (!DATA_ELEMENTS.contains(tag)) {
+                appendText(captures, html, i, textEnd);
+            }
+            closeElement(stack, captures, tag);
+            int close = end < 0 ? -1 : html.indexOf('>', end);
+            i = close < 0 ? n : close + 1;
+        }
+        return i;
+    }
+
+    private void closeElement(List<Element> stack, Capture[] captures, String tag) {
+        for (int depth = stack.size(); depth > 0; depth--) {
+            if (stack.get(depth - 1).tag.equals(tag)) {
+                for (Capture capture : captures) {
+                    if (capture.depth >= depth) {
+                        capture.finish();
+                    }
+                }
+                stack.subList(depth - 1, stack.size()).clear();
+                return;
+            }
+        }
+    }
+
+    private void appendText(Capture[] captures, String html, int start, int end) {
+        for (Capture capture : captures) {
+            if (capture.depth > 0) {
+                capture.raw.append(html, start, end);
+            }
+        }
+    }
+
+    private static boolean matches(Step[] chain, List<Element> stack) {
+        int step = chain.length - 1;
+        if (!chain[step].matches(stack.get(stack.size() - 1))) {
+            return false;
+        }
+        step--;
+        for (int depth = stack.size() - 2; depth >= 0 && step >= 0; depth--) {
+            if (chain[step].matches(stack.get(depth))) {
+                step--;
+            }
+        }
+        return step < 0;
+    }
+
+    private static int indexOfIgnoreCase(String html, String target, int from) {
+        for (int i = from; i <= html.length() - target.length(); i++) {
+            if (html.regionMatches(true, i, target, 0, target.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Step {
+        private final String tag;
+        private final String id;
+        private final String[] classes;
+
+        private Step(String tag, String id, String[] classes) {
+            this.tag = tag;
+            this.id = id;
+            this.classes = classes;
+        }
+
+        private boolean matches(Element element) {
+            if (tag != null && !tag.equals(element.tag)) {
+                return false;
+            }
+            if (id != null && !id.equals(element.id)) {
+                return false;
+            }
+            for (String c : classes) {
+                if (!Arrays.asList(element.classes).contains(c)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Element {
+        private final String tag;
+        private final String id;
+        private final String[] classes;
+
+        private Element(String tag, String id, String[] classes) {
+            this.tag = tag;
+            this.id = id;
+            this.classes = classes;
+        }
+    }
+
+    private static final class Capture {
+        private final Step[] chain;
+        private final StringBuilder raw = new StringBuilder();
+        private int depth;
+        private String text;
+
+        private Capture(Step[] chain) {
+            this.chain = chain;
+        }
+
+        private boolean isDone() {
+            return text != null;
+        }
+
+        private void finish() {
+            text = Parser.unescapeEntities(raw.toString(), false).replace('\u00A0', ' ').replaceAll("\\s+", " ").trim();
+            depth = -1;
+        }
+    }
+}
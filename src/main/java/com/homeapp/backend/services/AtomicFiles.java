@@ -0,0 +1,68 @@
+package com.homeapp.backend.services;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The Atomic Files helper.
+ * Writes whole files so that a reader, or the application after a crash, only ever sees the old file or the new one.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Writes the passed-in bytes to a temporary file beside the target, flushes it to disk, and renames it over the target in one step.
+     * The directory is flushed too, so the rename itself survives a power cut, where the file system allows it.
+     *
+     * @param target the file to write
+     * @param bytes  the bytes
+     * @throws IOException if the bytes could not be written, in which case the target is left as it was
+     */
+    public static void write(Path target, byte[] bytes) throws IOException {
+        Path temp = tempFileFor(target);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(target);
+    }
+
+    /**
+     * Flushes the directory holding the passed-in file, so a file just created or renamed in it survives a power cut, where the file system allows it.
+     *
+     * @param file the file
+     */
+    public static void forceDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel directory = FileChannel.open(dir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Not every file system lets a directory be opened, the rename is still atomic without it
+        }
+    }
+
+    /**
+     * Gets the temporary file the passed-in target is written to before it is renamed.
+     * One left behind by a crash can be deleted.
+     *
+     * @param target the target
+     * @return the temporary file
+     */
+    public static Path tempFileFor(Path target) {
+        return target.resolveSibling(target.getFileName() + ".tmp");
+    }
+}
@@ -1,8 +1,10 @@
 package com.homeapp.backend.services;
 
+import com.homeapp.backend.models.bike.BikeContext;
 import com.homeapp.backend.models.bike.BikeParts;
 import com.homeapp.backend.models.bike.Error;
 import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.bike.Money;
 import com.homeapp.backend.models.bike.Part;
 import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
@@ -11,15 +13,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.text.NumberFormat;
-import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.RIM;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.SINGLE_SPEED;
-import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
 
 /**
  * The Bike Parts Service.
@@ -34,58 +31,83 @@ public class BikePartsService {
     private static final String haloURL = "https://www.halowheels.com/shop/wheels/";
     private static final String dolanURL = "https://www.dolan-bikes.com/";
     private static final String genesisURL = "https://www.genesisbikes.co.uk/";
-    private static FullBike bike;
-    private BikeParts bikeParts;
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
-    private final FullBikeService fullBikeService;
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
     private final ShimanoGroupsetService shimanoGroupsetService;
+    private final PartsCatalogService partsCatalogService;
+    private final QuoteCacheService quoteCacheService;
+    private final FanOutExecutorService fanOutExecutorService;
 
     public BikePartsService() {
-        this.fullBikeService = null;
         this.shimanoGroupsetService = null;
+        this.partsCatalogService = null;
+        this.quoteCacheService = null;
+        this.fanOutExecutorService = null;
     }
 
     /**
      * Instantiates a new Bike parts service.
      * This instantiation is Autowired to allow this Service class to use methods from the other Service classes and the Exception Handler.
      *
-     * @param fullBikeService        the Full Bike Service
      * @param shimanoGroupsetService the Shimano Groupset Service
+     * @param partsCatalogService    the Parts Catalog Service
+     * @param quoteCacheService      the Quote Cache Service
+     * @param fanOutExecutorService  the Fan Out Executor Service
      */
     @Autowired
-    public BikePartsService(FullBikeService fullBikeService, ShimanoGroupsetService shimanoGroupsetService) {
-        this.fullBikeService = fullBikeService;
+    public BikePartsService(ShimanoGroupsetService shimanoGroupsetService, PartsCatalogService partsCatalogService, QuoteCacheService quoteCacheService, FanOutExecutorService fanOutExecutorService) {
         this.shimanoGroupsetService = shimanoGroupsetService;
-        this.bikeParts = new BikeParts();
+        this.partsCatalogService = partsCatalogService;
+        this.quoteCacheService = quoteCacheService;
+        this.fanOutExecutorService = fanOutExecutorService;
     }
 
     /**
-     * Gets bike parts for bike, each call of this method uses a new BikeParts object, so has no influence from previous calls.
-     * Bike parts Object is set to this instance. Each update to the Bike Parts object is done on this instance.
-     * Method uses the bike that is currently on the instance of the Full Bike Service.
+     * Gets bike parts for the passed-in bike, each call of this method uses a new BikeParts object, so has no influence from previous calls.
+     * A snapshot of the bike is taken into a Bike Context, which is passed to each get part method, so quotes for different bikes can run at the same time.
      * Sets of each individual get part methods, in parallel to save time, then combines the results into a single return Object.
+     * The get part methods run on the Fan Out Executor, while the groupset is looked up on the calling thread, so no pool thread waits on another.
+     * The Parts Catalog is checked once per call, so any changes to the links file are picked up before parts are looked up.
+     * Quotes are served from the Quote Cache when the same build has been quoted before.
      *
+     * @param bike the bike
      * @return the Bike Parts Object
      */
-    public BikeParts getBikePartsForBike() {
-        bikeParts = new BikeParts();
-        bike = fullBikeService.getBike();
-        CompletableFuture<Void> handleBarFuture = CompletableFuture.runAsync(this::getHandlebarPartsLink);
-        CompletableFuture<Void> frameFuture = CompletableFuture.runAsync(this::getFramePartsLink);
-        CompletableFuture<Void> gearFuture = CompletableFuture.runAsync(this::getGearSetLink);
-        CompletableFuture<Void> wheelFuture = CompletableFuture.runAsync(this::getWheelsLink);
-        CompletableFuture.allOf(handleBarFuture, frameFuture, gearFuture, wheelFuture).join();
-        calculateTotalPrice();
-        return bikeParts;
+    public BikeParts getBikePartsForBike(FullBike bike) {
+        partsCatalogService.reloadIfChanged();
+        BikeContext context = BikeContext.of(bike);
+        return quoteCacheService.getQuote(bike, () -> quoteBikeParts(context));
     }
 
-    private void getWheelsLink() {
+    /**
+     * Quotes the passed-in bike straight from the Parts Catalog, without going through the Quote Cache.
+     *
+     * @param bike the bike
+     * @return the Bike Parts Object
+     */
+    public BikeParts quoteBikeWithoutCache(FullBike bike) {
+        return quoteBikeParts(BikeContext.of(bike));
+    }
+
+    private BikeParts quoteBikeParts(BikeContext bike) {
+        CompletableFuture<Void> handleBarFuture = fanOutExecutorService.runAsync(() -> getHandlebarPartsLink(bike));
+        CompletableFuture<Void> frameFuture = fanOutExecutorService.runAsync(() -> getFramePartsLink(bike));
+        CompletableFuture<Void> wheelFuture = fanOutExecutorService.runAsync(() -> getWheelsLink(bike));
+        shimanoGroupsetService.getShimanoGroupset(bike);
+        FanOutExecutorService.StageOutcome outcome = fanOutExecutorService.await(FanOutExecutorService.PARTS_STAGE, handleBarFuture, frameFuture, wheelFuture);
+        if (!outcome.isCompleted()) {
+            bike.addError(new Error("Parts", "quoteBikeParts", outcome.getMessage()));
+        }
+        bike.close();
+        calculateTotalPrice(bike.getBikeParts());
+        return bike.getBikeParts();
+    }
+
+    private void getWheelsLink(BikeContext bike) {
         String ref;
-        bike = fullBikeService.getBike();
         infoLogger.log("Method for getting Bike Wheels from Web");
-        if (!bike.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
+        if (!bike.getFrameStyle().equals(SINGLE_SPEED)) {
             // Wheels which require Gears are from Wiggle
             if (!bike.getBrakeType().equals(RIM)) {
                 if (bike.getWheelPreference().equals("Cheap")) {
@@ -108,23 +130,14 @@ public class BikePartsService {
                 ref = "WheelFixieExpensive";
             }
         }
-        assert shimanoGroupsetService != null;
-        shimanoGroupsetService.findPartFromInternalRef(ref);
-    }
-
-    private void getGearSetLink() {
-        bike = fullBikeService.getBike();
-        bike.setGroupsetBrand(SHIMANO);
-        shimanoGroupsetService.getShimanoGroupset(bikeParts);
+        shimanoGroupsetService.findPartFromInternalRef(ref, bike);
     }
 
-    private void getHandlebarPartsLink() {
+    private void getHandlebarPartsLink(BikeContext bike) {
         String ref = "";
         String component = "HandleBars";
         String method = "GetHandleBarParts";
         try {
-            assert fullBikeService != null;
-            bike = fullBikeService.getBike();
             infoLogger.log("Method for Getting Handlebar Parts from web");
             switch (bike.getHandleBarType()) {
                 case DROPS -> ref = "BarsDrop";
@@ -132,27 +145,26 @@ public class BikePartsService {
                 case BULLHORNS -> ref = "BarsBull";
                 case FLARE -> ref = "BarsFlare";
             }
-            shimanoGroupsetService.findPartFromInternalRef(ref);
+            shimanoGroupsetService.findPartFromInternalRef(ref, bike);
         } catch (Exception e) {
-            bikeParts.getErrorMessages().add(new Error(component, method, e.getMessage()));
+            bike.addError(new Error(component, method, e.getMessage()));
             errorLogger.log("An Exception occurred from: " + method + "!!See error message: " + e.getMessage() + "!!For bike Component: " + component);
         }
     }
 
-    private void getFramePartsLink() {
+    private void getFramePartsLink(BikeContext bike) {
         String ref = "";
-        bike = fullBikeService.getBike();
         infoLogger.log("Method for Getting Frame Parts Link");
-        switch (bike.getFrame().getFrameStyle()) {
+        switch (bike.getFrameStyle()) {
             case ROAD -> {
-                if (bike.getFrame().isDiscBrakeCompatible()) {
+                if (bike.isDiscBrakeCompatible()) {
                     ref = "FrameRoadDisc";
                 } else {
                     ref = "FrameRoadRim";
                 }
             }
             case TOUR -> {
-                if (bike.getFrame().isDiscBrakeCompatible()) {
+                if (bike.isDiscBrakeCompatible()) {
                     ref = "FrameTourDisc";
                 } else {
                     ref = "FrameTourRim";
@@ -161,25 +173,26 @@ public class BikePartsService {
             case GRAVEL -> ref = "FrameGravel";
             case SINGLE_SPEED -> ref = "FrameFixie";
         }
-        shimanoGroupsetService.findPartFromInternalRef(ref);
+        shimanoGroupsetService.findPartFromInternalRef(ref, bike);
     }
 
     /**
-     * Takes the price of each part on the bike parts instance object and sums them to create a total price.
-     * Restructures the big decimal value into a String for displaying on FE.
+     * Takes the price of each part on the passed-in bike parts and sums them to create a total price.
+     * Each Part's price was read into pence when the Part was loaded, so the sum is plain long arithmetic.
+     * Formats the total into a String for displaying on FE.
+     *
+     * @param bikeParts the bike parts
      */
-    private void calculateTotalPrice() {
-        BigDecimal total = new BigDecimal(0);
+    private void calculateTotalPrice(BikeParts bikeParts) {
+        long pence = 0;
         for (Part p : bikeParts.getListOfParts()) {
-            if (p.getPrice() != null) {
-                p.setPrice(p.getPrice().replace(",", ""));
-                BigDecimal bd = new BigDecimal(p.getPrice());
-                bd = bd.setScale(2, RoundingMode.CEILING);
-                total = total.add(bd);
+            Money price = p.getMoney();
+            if (price != null) {
+                pence += price.getMinorUnits();
             }
         }
-        bikeParts.setTotalBikePrice(total);
-        bikeParts.setTotalPriceAsString(NumberFormat.getCurrencyInstance(Locale.UK).format(total));
-
+        Money total = Money.of(pence, Money.GBP);
+        bikeParts.setTotal(total);
+        bikeParts.setTotalPriceAsString(total.format());
     }
 }
\ No newline at end of file
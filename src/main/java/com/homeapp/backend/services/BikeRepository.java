@@ -0,0 +1,383 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.FullBike;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The Bike Repository.
+ * Holds every saved Full Bike in memory, indexed by ID and by name, so a single bike is found in constant time however many are saved.
+ * Bikes are also kept in the order they were saved, for returning them all.
+ * Any number of threads can read at once without locking.
+ * Changes lock only the name of the bike being changed, so changes to different bikes run at the same time, and changes to the same bike one after another.
+ * A reader running alongside a change sees the repository either before or after each bike is added or removed.
+ * A replaced bike is indexed again before the bike it replaces is removed, so a reader looking it up by ID finds one or the other, never neither.
+ * More than one bike can share an ID or name; looking one up finds the first saved.
+ * A bike's ID and name are indexed when it is added, so a bike must be removed and added again to change them.
+ */
+public final class BikeRepository {
+
+    private static final String NO_NAME = "\u0000";
+    private static final Runnable NOTHING = () -> {
+    };
+    private final ConcurrentSkipListMap<Long, FullBike> ordered = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<Entry>> byId = new ConcurrentHashMap<>();
+    private final Map<String, List<Entry>> byName = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong nextPosition = new AtomicLong();
+    private final AtomicLong highestId = new AtomicLong();
+
+    /**
+     * Instantiates a new, empty Bike Repository.
+     */
+    public BikeRepository() {
+    }
+
+    /**
+     * Instantiates a new Bike Repository holding the passed-in bikes, in order.
+     *
+     * @param bikes the bikes
+     */
+    public BikeRepository(Collection<FullBike> bikes) {
+        replaceAll(bikes);
+    }
+
+    /**
+     * Finds the first saved bike with the passed-in ID.
+     *
+     * @param fullBikeId the full bike id
+     * @return the bike, if one is saved with the ID
+     */
+    public Optional<FullBike> findById(long fullBikeId) {
+        return first(byId.get(fullBikeId));
+    }
+
+    /**
+     * Finds the first saved bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return the bike, if one is saved with the name
+     */
+    public Optional<FullBike> findByName(String bikeName) {
+        return bikeName == null ? Optional.empty() : first(byName.get(bikeName));
+    }
+
+    /**
+     * Gets every saved bike, in the order they were saved.
+     *
+     * @return a new list of the bikes
+     */
+    public List<FullBike> findAll() {
+        return new ArrayList<>(ordered.values());
+    }
+
+    /**
+     * Finds up to the passed-in number of saved bikes that match the filter, in the order they were saved, starting after the passed-in position.
+     * Only the bikes read are touched, so a page costs the same however many bikes are saved.
+     *
+     * @param after  the position of the last bike on the page before, or -1 to start from the first bike
+     * @param limit  the most bikes to find
+     * @param filter the filter
+     * @return the bikes found, keyed by their positions, in order
+     */
+    public NavigableMap<Long, FullBike> findPage(long after, int limit, Predicate<FullBike> filter) {
+        NavigableMap<Long, FullBike> page = new TreeMap<>();
+        Iterator<Map.Entry<Long, FullBike>> bikes = ordered.tailMap(after, false).entrySet().iterator();
+        while (page.size() < limit && bikes.hasNext()) {
+            Map.Entry<Long, FullBike> bike = bikes.next();
+            if (filter.test(bike.getValue())) {
+                page.put(bike.getKey(), bike.getValue());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Streams every saved bike, in the order they were saved, reading each as it is reached rather than copying them all first.
+     * Bikes saved or removed while streaming may or may not be seen.
+     *
+     * @return the stream of bikes
+     */
+    public Stream<FullBike> stream() {
+        return ordered.values().stream();
+    }
+
+    /**
+     * Gets the number of saved bikes.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets an ID higher than any bike saved so far, including bikes since removed.
+     *
+     * @return the next id
+     */
+    public long nextId() {
+        return highestId.get() + 1;
+    }
+
+    /**
+     * Adds the passed-in bike after every bike already saved.
+     *
+     * @param bike the bike
+     */
+    public void add(FullBike bike) {
+        add(bike, NOTHING);
+    }
+
+    /**
+     * Adds the passed-in bike after every bike already saved.
+     * The passed-in action is run while the bike's name is still locked, so anything it records sees changes to the same name in the order they were made.
+     * If the action throws, nothing is added.
+     *
+     * @param bike     the bike
+     * @param onChange run just before the bike is added
+     */
+    public void add(FullBike bike, Runnable onChange) {
+        shared(() -> byName.compute(keyOf(bike.getBikeName()), (name, list) -> {
+            onChange.run();
+            return append(list, index(bike));
+        }));
+    }
+
+    /**
+     * Removes every bike with the passed-in ID.
+     *
+     * @param fullBikeId the full bike id
+     * @return the removed bikes, empty if none had the ID
+     */
+    public List<FullBike> removeById(long fullBikeId) {
+        return removeById(fullBikeId, NOTHING);
+    }
+
+    /**
+     * Removes every bike with the passed-in ID.
+     * The passed-in action is run once for each bike removed, while its name is still locked.
+     *
+     * @param fullBikeId the full bike id
+     * @param onChange   run just before each bike is removed
+     * @return the removed bikes, empty if none had the ID
+     */
+    public List<FullBike> removeById(long fullBikeId, Runnable onChange) {
+        List<FullBike> removed = new ArrayList<>();
+        shared(() -> {
+            List<Entry> entries = byId.get(fullBikeId);
+            if (entries == null) {
+                return;
+            }
+            for (Entry entry : entries) {
+                byName.computeIfPresent(entry.key, (name, list) -> {
+                    if (!list.contains(entry)) {
+                        return list;
+                    }
+                    onChange.run();
+                    unindex(entry);
+                    removed.add(entry.bike);
+                    return without(list, entry);
+                });
+            }
+        });
+        return removed;
+    }
+
+    /**
+     * Removes every bike with the passed-in name.
+     *
+     * @param bikeName the bike name
+     * @return the removed bikes, empty if none had the name
+     */
+    public List<FullBike> removeByName(String bikeName) {
+        List<FullBike> removed = new ArrayList<>();
+        if (bikeName != null) {
+            shared(() -> byName.computeIfPresent(bikeName, (name, list) -> {
+                list.forEach(entry -> {
+                    unindex(entry);
+                    removed.add(entry.bike);
+                });
+                return null;
+            }));
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces every bike with the same name as the passed-in bike with it, saving it after every other bike.
+     *
+     * @param bike the bike
+     * @return the replaced bikes, empty if none had the name
+     */
+    public List<FullBike> replaceByName(FullBike bike) {
+        List<FullBike> replaced = new ArrayList<>();
+        shared(() -> byName.compute(keyOf(bike.getBikeName()), (name, list) -> {
+            Entry added = index(bike);
+            if (list != null) {
+                list.forEach(entry -> {
+                    unindex(entry);
+                    replaced.add(entry.bike);
+                });
+            }
+            return List.of(added);
+        }));
+        return replaced;
+    }
+
+    /**
+     * Replaces every bike with the same name as the passed-in bike with it, but only if the first saved with the name is still at the expected version.
+     * A name with no bike saved is at version 0.
+     * The replacement is given the next version, and saved after every other bike.
+     * The passed-in action is run while the name is still locked, once the replacement has its new version, so anything it records sees changes to the same name in the order they were made.
+     * If the action throws, nothing is replaced.
+     *
+     * @param bike            the bike
+     * @param expectedVersion the version the bike was changed from
+     * @param onChange        run just before the bike is replaced
+     * @return true if the bike was replaced, false if the saved bike has moved on from the expected version
+     */
+    public boolean compareAndReplace(FullBike bike, long expectedVersion, Runnable onChange) {
+        AtomicBoolean replaced = new AtomicBoolean();
+        shared(() -> byName.compute(keyOf(bike.getBikeName()), (name, list) -> {
+            long current = list == null || list.isEmpty() ? 0 : list.get(0).bike.getVersion();
+            if (current != expectedVersion) {
+                return list;
+            }
+            bike.setVersion(expectedVersion + 1);
+            try {
+                onChange.run();
+            } catch (RuntimeException e) {
+                bike.setVersion(expectedVersion);
+                throw e;
+            }
+            Entry added = index(bike);
+            if (list != null) {
+                list.forEach(this::unindex);
+            }
+            replaced.set(true);
+            return List.of(added);
+        }));
+        return replaced.get();
+    }
+
+    /**
+     * Replaces every saved bike with the passed-in bikes, in order.
+     * Waits for any change in progress, and holds off any new one, until it is done.
+     *
+     * @param bikes the bikes
+     */
+    public void replaceAll(Collection<FullBike> bikes) {
+        exclusively(() -> {
+            clearIndexes();
+            bikes.forEach(bike -> byName.compute(keyOf(bike.getBikeName()), (name, list) -> append(list, index(bike))));
+        });
+    }
+
+    /**
+     * Removes every saved bike.
+     */
+    public void clear() {
+        exclusively(this::clearIndexes);
+    }
+
+    /**
+     * Runs the passed-in action with no change in progress, holding off any new change until it is done.
+     * Used to take a copy of every saved bike that no change is part way through.
+     *
+     * @param action the action
+     */
+    public void exclusively(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void shared(Runnable change) {
+        lock.readLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clearIndexes() {
+        byId.clear();
+        byName.clear();
+        ordered.clear();
+        size.set(0);
+    }
+
+    private Entry index(FullBike bike) {
+        Entry entry = new Entry(nextPosition.getAndIncrement(), bike);
+        ordered.put(entry.position, bike);
+        byId.merge(entry.id, List.of(entry), BikeRepository::append);
+        highestId.accumulateAndGet(entry.id, Math::max);
+        size.incrementAndGet();
+        return entry;
+    }
+
+    private void unindex(Entry entry) {
+        ordered.remove(entry.position);
+        byId.computeIfPresent(entry.id, (id, list) -> without(list, entry));
+        size.decrementAndGet();
+    }
+
+    private static String keyOf(String bikeName) {
+        return bikeName == null ? NO_NAME : bikeName;
+    }
+
+    private static Optional<FullBike> first(List<Entry> entries) {
+        return entries == null || entries.isEmpty() ? Optional.empty() : Optional.of(entries.get(0).bike);
+    }
+
+    private static List<Entry> append(List<Entry> list, Entry added) {
+        return list == null ? List.of(added) : append(list, List.of(added));
+    }
+
+    private static List<Entry> append(List<Entry> list, List<Entry> added) {
+        List<Entry> merged = new ArrayList<>(list.size() + added.size());
+        merged.addAll(list);
+        merged.addAll(added);
+        return List.copyOf(merged);
+    }
+
+    private static List<Entry> without(List<Entry> list, Entry removed) {
+        if (list.size() == 1 && list.get(0) == removed) {
+            return null;
+        }
+        List<Entry> kept = new ArrayList<>(list);
+        kept.remove(removed);
+        return kept.isEmpty() ? null : List.copyOf(kept);
+    }
+
+    /**
+     * A saved bike, with the position, ID and name it was indexed under.
+     */
+    private static final class Entry {
+        private final long position;
+        private final long id;
+        private final String key;
+        private final FullBike bike;
+
+        private Entry(long position, FullBike bike) {
+            this.position = position;
+            this.id = bike.getFullBikeId();
+            this.key = keyOf(bike.getBikeName());
+            this.bike = bike;
+        }
+    }
+}
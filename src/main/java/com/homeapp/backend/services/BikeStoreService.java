@@ -0,0 +1,454 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+/**
+ * The Bike Store Service.
+ * Keeps the saved bikes in a Bike Repository on disk, as the bikes file plus a journal of every change made since the bikes file was written.
+ * Each change adds one short line to the journal, so saving a bike costs the same however many bikes are saved.
+ * Changes to different bikes are made and journaled at the same time, and changes to the same bike are journaled in the order they were made.
+ * Changes from threads saving at the same time are flushed to disk together, so one flush covers every change waiting on it.
+ * Once enough changes are in the journal, the bikes file is rewritten with every bike, and the journal started again.
+ * Every journal line has a checksum, so a line left half written by a crash is found, and it and anything after it are ignored.
+ * The journal starts with the checksum of the bikes file it follows on from, so a journal is never replayed onto a different bikes file.
+ */
+@Service
+public class BikeStoreService {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final Path bikesFile;
+    private final Path journalFile;
+    private final int compactAfter;
+    private final Object pendingLock = new Object();
+    private final Object syncLock = new Object();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private BikeRepository bikes;
+    private FileChannel journal;
+    private long appended;
+    private volatile long durable;
+    private volatile boolean damaged;
+    private volatile int journalRecords;
+    private volatile long syncs;
+    private volatile long compactions;
+
+    /**
+     * Instantiates a new Bike Store Service.
+     *
+     * @param bikesFile    the bikes file
+     * @param journalFile  the journal file
+     * @param compactAfter the number of changes in the journal before the bikes file is rewritten
+     */
+    @Autowired
+    public BikeStoreService(@Value("${bikes.file:src/main/resources/bikes.json}") String bikesFile,
+                            @Value("${bikes.journal.file:src/main/bikes-journal/bikes.journal}") String journalFile,
+                            @Value("${bikes.journal.compact-after:1000}") int compactAfter) {
+        this.bikesFile = Paths.get(bikesFile);
+        this.journalFile = Paths.get(journalFile);
+        this.compactAfter = Math.max(1, compactAfter);
+    }
+
+    /**
+     * A single change to the saved bikes, as written to the journal.
+     */
+    private static final class Change {
+        private final ObjectNode record;
+
+        private Change(ObjectNode record) {
+            this.record = record;
+        }
+
+        /**
+         * A bike added after every bike already saved.
+         *
+         * @param bike the bike
+         * @return the change
+         */
+        public static Change added(FullBike bike) {
+            return new Change(om.createObjectNode().put("op", "ADD").set("bike", om.valueToTree(bike)));
+        }
+
+        /**
+         * A bike replacing every saved bike with the same name.
+         *
+         * @param bike the bike
+         * @return the change
+         */
+        public static Change replaced(FullBike bike) {
+            return new Change(om.createObjectNode().put("op", "REPLACE").set("bike", om.valueToTree(bike)));
+        }
+
+        /**
+         * Every saved bike with the passed-in ID removed.
+         *
+         * @param fullBikeId the full bike id
+         * @return the change
+         */
+        public static Change removed(long fullBikeId) {
+            return new Change(om.createObjectNode().put("op", "REMOVE").put("id", fullBikeId));
+        }
+    }
+
+    /**
+     * Loads the bikes file into the passed-in Bike Repository, and replays the journal onto it.
+     * If the journal had anything in it, or could not be replayed, the bikes file is rewritten and the journal started again.
+     * A missing bikes file is loaded as no bikes. A bikes file or journal that cannot be read stops the load, leaving both as they are, so no saved bike is written over.
+     * Every later change made through this store is made to the same Bike Repository.
+     *
+     * @param bikes the bike repository
+     * @throws UncheckedIOException if the bikes file or journal could not be read
+     */
+    public void load(BikeRepository bikes) {
+        synchronized (syncLock) {
+            this.bikes = bikes;
+            infoLogger.log("Reading Bikes From File");
+            try {
+                byte[] snapshot = readSnapshot();
+                Files.createDirectories(journalFile.toAbsolutePath().getParent());
+                Files.deleteIfExists(AtomicFiles.tempFileFor(bikesFile));
+                Files.deleteIfExists(AtomicFiles.tempFileFor(journalFile));
+                if (!replay(snapshot)) {
+                    exclusively(this::compactLocked);
+                } else {
+                    journal = FileChannel.open(journalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+            } catch (IOException e) {
+                errorLogger.log("An IOException occurred from method: load!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                throw new UncheckedIOException(e);
+            }
+            infoLogger.log("Bike store opened with " + bikes.size() + " bikes");
+        }
+    }
+
+    /**
+     * Reads the bikes file into the saved bikes.
+     *
+     * @return the bikes file, empty if there is none
+     */
+    private byte[] readSnapshot() throws IOException {
+        byte[] snapshot;
+        try {
+            snapshot = Files.readAllBytes(bikesFile);
+        } catch (NoSuchFileException e) {
+            warnLogger.log("No bikes file found at " + bikesFile + ", starting with no bikes");
+            bikes.clear();
+            return new byte[0];
+        }
+        bikes.replaceAll(om.readValue(snapshot, new TypeReference<List<FullBike>>() {
+        }));
+        return snapshot;
+    }
+
+    /**
+     * Adds the passed-in bike after every bike already saved, and returns once the change is in the journal on disk.
+     *
+     * @param bike the bike
+     * @throws IOException if the change could not be written to disk, in which case the bikes file is rewritten with it on the next change
+     */
+    public void add(FullBike bike) throws IOException {
+        journaled(() -> {
+            bikes.add(bike, () -> append(Change.added(bike)));
+            return true;
+        });
+    }
+
+    /**
+     * Replaces every bike with the same name as the passed-in bike with it, if the first saved with the name is still at the expected version,
+     * and returns once the change is in the journal on disk.
+     *
+     * @param bike            the bike
+     * @param expectedVersion the version the bike was changed from
+     * @return true if the bike was replaced, false if the saved bike has moved on from the expected version
+     * @throws IOException if the change could not be written to disk, in which case the bikes file is rewritten with it on the next change
+     */
+    public boolean replace(FullBike bike, long expectedVersion) throws IOException {
+        return journaled(() -> bikes.compareAndReplace(bike, expectedVersion, () -> append(Change.replaced(bike))));
+    }
+
+    /**
+     * Removes every bike with the passed-in ID, and returns once the change is in the journal on disk.
+     *
+     * @param fullBikeId the full bike id
+     * @return true if any bike was removed
+     * @throws IOException if the change could not be written to disk, in which case the bikes file is rewritten with it on the next change
+     */
+    public boolean remove(long fullBikeId) throws IOException {
+        return journaled(() -> !bikes.removeById(fullBikeId, () -> append(Change.removed(fullBikeId))).isEmpty());
+    }
+
+    /**
+     * Replaces every saved bike with the passed-in bikes, and rewrites the bikes file.
+     *
+     * @param list the list
+     * @throws IOException if the bikes file could not be written, in which case it is rewritten on the next change
+     */
+    public void replaceAll(List<FullBike> list) throws IOException {
+        synchronized (syncLock) {
+            exclusively(() -> {
+                bikes.replaceAll(list);
+                compactLocked();
+            });
+        }
+    }
+
+    /**
+     * Rewrites the bikes file with every saved bike, and starts the journal again, once enough changes are in the journal.
+     *
+     * @throws IOException if the bikes file could not be written, in which case it is left as it was, and the journal kept
+     */
+    public void compact() throws IOException {
+        synchronized (syncLock) {
+            if (journalRecords >= compactAfter) {
+                exclusively(this::compactLocked);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of changes written, the number of times the journal was flushed to disk for them, and how often the bikes file was rewritten.
+     *
+     * @return the stats
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        synchronized (pendingLock) {
+            stats.put("changes", appended);
+        }
+        stats.put("syncs", syncs);
+        stats.put("journalRecords", (long) journalRecords);
+        stats.put("compactions", compactions);
+        return stats;
+    }
+
+    /**
+     * Makes a change to the Bike Repository, which adds any record of it to the journal as it is made, then flushes the journal to disk.
+     * The bikes file is rewritten once enough changes are in the journal.
+     * The change itself only locks the name of the bike it changes, and adding the record only locks the journal for as long as it takes to copy it in.
+     *
+     * @return true if the change was made
+     */
+    private boolean journaled(BooleanSupplier change) throws IOException {
+        try {
+            if (!change.getAsBoolean()) {
+                return false;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long ticket;
+        synchronized (pendingLock) {
+            ticket = appended;
+        }
+        sync(ticket);
+        if (journalRecords >= compactAfter) {
+            compact();
+        }
+        return true;
+    }
+
+    private void append(Change change) {
+        try {
+            byte[] line = encode(change.record);
+            synchronized (pendingLock) {
+                pending.write(line);
+                appended++;
+                journalRecords++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Runs the passed-in part of a rewrite of the bikes file with no change to the Bike Repository in progress, and none started until it is done.
+     */
+    private void exclusively(JournalAction action) throws IOException {
+        try {
+            bikes.exclusively(() -> {
+                synchronized (pendingLock) {
+                    try {
+                        action.run();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Flushes every change waiting to the journal on disk, unless another thread already has.
+     * While one thread flushes, changes from other threads wait in memory, and the next thread to flush takes them all at once.
+     * A failed flush may leave half a line at the end of the journal, and nothing after it would be replayed, so the bikes file is rewritten instead.
+     *
+     * @param ticket the change to wait for
+     */
+    private void sync(long ticket) throws IOException {
+        if (durable >= ticket) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durable >= ticket) {
+                return;
+            }
+            if (damaged) {
+                exclusively(this::compactLocked);
+                return;
+            }
+            byte[] bytes;
+            long upTo;
+            synchronized (pendingLock) {
+                bytes = pending.toByteArray();
+                pending.reset();
+                upTo = appended;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+                syncs++;
+            } catch (IOException e) {
+                errorLogger.log("An IOException occurred from method: sync!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                damaged = true;
+                throw e;
+            }
+            durable = upTo;
+        }
+    }
+
+    /**
+     * Writes the bikes file, then a new journal holding only the checksum of it.
+     * A crash between the two leaves a journal that does not match the bikes file, which is then ignored, as the bikes file already has every change in it.
+     */
+    private void compactLocked() throws IOException {
+        byte[] snapshot = om.writeValueAsBytes(bikes.findAll());
+        AtomicFiles.write(bikesFile, snapshot);
+        if (journal != null) {
+            journal.close();
+        }
+        AtomicFiles.write(journalFile, encode(header(snapshot)));
+        journal = FileChannel.open(journalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        pending.reset();
+        durable = appended;
+        damaged = false;
+        journalRecords = 0;
+        compactions++;
+        infoLogger.log("Writing Bikes Back to File, " + bikes.size() + " bikes");
+    }
+
+    /**
+     * Replays the journal onto the saved bikes.
+     *
+     * @param snapshot the bikes file the saved bikes were loaded from
+     * @return true if the journal follows on from the bikes file and was replayed whole with no changes in it, false if it needs starting again
+     */
+    private boolean replay(byte[] snapshot) throws IOException {
+        if (!Files.isRegularFile(journalFile)) {
+            return false;
+        }
+        List<JsonNode> records = new ArrayList<>();
+        boolean torn = false;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode record = decode(line);
+                if (record == null) {
+                    torn = true;
+                    break;
+                }
+                records.add(record);
+            }
+        }
+        if (records.isEmpty() || !records.get(0).equals(header(snapshot))) {
+            warnLogger.log("Bike journal does not follow on from the bikes file, ignoring it");
+            return false;
+        }
+        for (JsonNode record : records.subList(1, records.size())) {
+            switch (record.path("op").asText()) {
+                case "ADD" -> bikes.add(om.treeToValue(record.get("bike"), FullBike.class));
+                case "REPLACE" -> bikes.replaceByName(om.treeToValue(record.get("bike"), FullBike.class));
+                case "REMOVE" -> bikes.removeById(record.path("id").asLong());
+                default -> warnLogger.log("Unknown bike journal record: " + record);
+            }
+        }
+        if (torn) {
+            warnLogger.log("Bike journal ends with a half written change, ignoring it");
+        }
+        infoLogger.log("Replayed " + (records.size() - 1) + " changes from bike journal");
+        return !torn && records.size() == 1;
+    }
+
+    private interface JournalAction {
+        void run() throws IOException;
+    }
+
+    private static ObjectNode header(byte[] snapshot) {
+        return om.createObjectNode().put("snapshot", Long.toHexString(crcOf(snapshot))).put("bytes", snapshot.length);
+    }
+
+    private static byte[] encode(JsonNode record) throws IOException {
+        byte[] json = om.writeValueAsBytes(record);
+        String crc = String.format("%08x ", crcOf(json));
+        ByteArrayOutputStream line = new ByteArrayOutputStream(json.length + 10);
+        line.write(crc.getBytes(StandardCharsets.US_ASCII));
+        line.write(json);
+        line.write('\n');
+        return line.toByteArray();
+    }
+
+    private static JsonNode decode(String line) {
+        if (line.length() < 10 || line.charAt(8) != ' ') {
+            return null;
+        }
+        byte[] json = line.substring(9).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (Long.parseLong(line.substring(0, 8), 16) != crcOf(json)) {
+                return null;
+            }
+            return om.readTree(json);
+        } catch (NumberFormatException | IOException e) {
+            return null;
+        }
+    }
+
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,228 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * The Catalog Store Service.
+ * Reads and writes the links file, which every Part lookup in the Parts Catalog is loaded from.
+ * The links file is never written in place. Each write goes to a temporary file beside it, which is flushed to disk and then renamed over the links file in one step,
+ * so the links file is always either the old catalog or the new one, even if the application stops part way through a write.
+ * Every write is also kept as a numbered generation in the snapshots directory, written the same way, and the newest few are kept.
+ * Any kept generation can be rolled back to, and if the links file cannot be read, the newest generation that can be is read instead.
+ */
+@Service
+public class CatalogStoreService {
+
+    private static final String SNAPSHOT_PREFIX = "links-";
+    private static final String SNAPSHOT_SUFFIX = ".json";
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final ObjectMapper om;
+    private final Path linksFile;
+    private final Path snapshots;
+    private final int generationsKept;
+    private long latestGeneration;
+    private long liveGeneration;
+
+    /**
+     * Instantiates a new Catalog Store Service.
+     * When there are no generations yet, the links file as it is now is kept as the first.
+     *
+     * @param om              the object mapper
+     * @param linksFile       the links file
+     * @param snapshots       the directory the generations are kept in
+     * @param generationsKept the number of generations to keep
+     */
+    @Autowired
+    public CatalogStoreService(ObjectMapper om,
+                               @Value("${links.file:src/main/resources/links.json}") String linksFile,
+                               @Value("${links.snapshots.directory:src/main/links-history/}") String snapshots,
+                               @Value("${links.snapshots.generations:10}") int generationsKept) {
+        this.om = om;
+        this.linksFile = Paths.get(linksFile);
+        this.snapshots = Paths.get(snapshots);
+        this.generationsKept = Math.max(1, generationsKept);
+        try {
+            Files.createDirectories(this.snapshots);
+            Files.deleteIfExists(AtomicFiles.tempFileFor(this.linksFile));
+            List<Long> generations = listGenerations();
+            latestGeneration = generations.isEmpty() ? 0 : generations.get(generations.size() - 1);
+            liveGeneration = latestGeneration;
+            if (generations.isEmpty() && Files.isRegularFile(this.linksFile)) {
+                byte[] bytes = Files.readAllBytes(this.linksFile);
+                om.readValue(bytes, new TypeReference<List<Part>>() {
+                });
+                AtomicFiles.write(snapshotFor(++latestGeneration), bytes);
+                liveGeneration = latestGeneration;
+            }
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: CatalogStoreService!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+        infoLogger.log("Catalog store opened at generation " + latestGeneration);
+    }
+
+    /**
+     * Gets the links file, so callers can tell when it has changed.
+     *
+     * @return the links file
+     */
+    public Path getLinksFile() {
+        return linksFile;
+    }
+
+    /**
+     * Reads every Part from the links file.
+     * If the links file cannot be read, the newest generation that can be is read instead.
+     *
+     * @return the list of parts, empty if neither the links file nor any generation can be read
+     */
+    public List<Part> read() {
+        try {
+            return om.readValue(linksFile.toFile(), new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: read!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+        List<Long> generations = listGenerations();
+        for (int i = generations.size() - 1; i >= 0; i--) {
+            try {
+                List<Part> parts = om.readValue(snapshotFor(generations.get(i)).toFile(), new TypeReference<>() {
+                });
+                warnLogger.log("Links file could not be read, using generation " + generations.get(i));
+                return parts;
+            } catch (IOException e) {
+                errorLogger.log("An IOException occurred from method: read!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Writes the passed-in Parts to the links file, and keeps them as a new generation.
+     * Generations older than the number kept are deleted.
+     *
+     * @param parts the parts
+     * @return the new generation
+     * @throws IOException if the Parts could not be written, in which case the links file is left as it was
+     */
+    public synchronized long write(List<Part> parts) throws IOException {
+        byte[] bytes = om.writeValueAsBytes(parts);
+        long generation = latestGeneration + 1;
+        AtomicFiles.write(snapshotFor(generation), bytes);
+        AtomicFiles.write(linksFile, bytes);
+        latestGeneration = generation;
+        liveGeneration = generation;
+        List<Long> generations = listGenerations();
+        for (int i = 0; i < generations.size() - generationsKept; i++) {
+            Files.deleteIfExists(snapshotFor(generations.get(i)));
+        }
+        infoLogger.log("Wrote " + parts.size() + " Parts to links file, generation " + generation);
+        return generation;
+    }
+
+    /**
+     * Puts the passed-in generation back as the links file.
+     * The generation is read first, so one that cannot be read is never put back.
+     *
+     * @param generation the generation
+     * @return true if the generation was put back, false if it is not kept or cannot be read
+     */
+    public synchronized boolean rollback(long generation) {
+        Path snapshot = snapshotFor(generation);
+        if (!Files.isRegularFile(snapshot)) {
+            warnLogger.log("Catalog generation " + generation + " is not kept, cannot roll back");
+            return false;
+        }
+        try {
+            byte[] bytes = Files.readAllBytes(snapshot);
+            om.readValue(bytes, new TypeReference<List<Part>>() {
+            });
+            AtomicFiles.write(linksFile, bytes);
+            liveGeneration = generation;
+            warnLogger.log("Rolled links file back to generation " + generation);
+            return true;
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: rollback!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return false;
+        }
+    }
+
+    /**
+     * Has the passed-in generation been kept.
+     *
+     * @param generation the generation
+     * @return the boolean
+     */
+    public boolean hasGeneration(long generation) {
+        return Files.isRegularFile(snapshotFor(generation));
+    }
+
+    /**
+     * Gets every kept generation, newest first, with when it was written, its size, and whether it is the one in the links file.
+     *
+     * @return the generations
+     */
+    public synchronized List<Map<String, Object>> getGenerations() {
+        List<Map<String, Object>> generations = new ArrayList<>();
+        List<Long> kept = listGenerations();
+        for (int i = kept.size() - 1; i >= 0; i--) {
+            Path snapshot = snapshotFor(kept.get(i));
+            try {
+                Map<String, Object> g = new LinkedHashMap<>();
+                g.put("generation", kept.get(i));
+                g.put("written", Instant.ofEpochMilli(Files.getLastModifiedTime(snapshot).toMillis()).toString());
+                g.put("bytes", Files.size(snapshot));
+                g.put("live", kept.get(i) == liveGeneration);
+                generations.add(g);
+            } catch (IOException e) {
+                warnLogger.log("Catalog generation " + kept.get(i) + " was deleted while being listed");
+            }
+        }
+        return generations;
+    }
+
+    /**
+     * Gets the generation in the links file.
+     *
+     * @return the generation, 0 if none has been written
+     */
+    public synchronized long getLiveGeneration() {
+        return liveGeneration;
+    }
+
+    private List<Long> listGenerations() {
+        try (Stream<Path> files = Files.list(snapshots)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()))
+                    .filter(number -> number.matches("\\d+"))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: listGenerations!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return List.of();
+        }
+    }
+
+    private Path snapshotFor(long generation) {
+        return snapshots.resolve(SNAPSHOT_PREFIX + String.format("%06d", generation) + SNAPSHOT_SUFFIX);
+    }
+}
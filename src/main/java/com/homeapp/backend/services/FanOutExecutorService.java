@@ -0,0 +1,270 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Fan Out Executor Service.
+ * Runs the parallel steps of a quote on a pool kept for that work, rather than the JVM's shared common pool.
+ * The strategy is set by the fanout.strategy property, either a BOUNDED pool of named threads with a bounded queue,
+ * or VIRTUAL threads when the JDK being run on has them.
+ * Each stage waits a limited time for its steps, set per stage, and counts its timeouts.
+ * Steps of a stage that times out are cancelled, so any not yet started never run.
+ */
+@Service
+public class FanOutExecutorService {
+
+    /**
+     * The Stage that looks up the frame, bars and wheels for a quote.
+     */
+    public static final String PARTS_STAGE = "parts";
+    /**
+     * The Stage that looks up the groupset for a quote.
+     */
+    public static final String GROUPSET_STAGE = "groupset";
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor boundedPool;
+    private final Map<String, Long> stageTimeoutMillis = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> stageTimeouts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> stageFailures = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong ranOnCaller = new AtomicLong();
+
+    /**
+     * Instantiates a new Fan Out Executor Service.
+     *
+     * @param strategy        BOUNDED or VIRTUAL
+     * @param poolSize        the number of threads in the bounded pool, zero for twice the number of cores
+     * @param queueCapacity   the number of steps that can wait for a thread in the bounded pool
+     * @param partsTimeout    the most time in milliseconds to wait for the parts stage
+     * @param groupsetTimeout the most time in milliseconds to wait for the groupset stage
+     */
+    @Autowired
+    public FanOutExecutorService(@Value("${fanout.strategy:BOUNDED}") String strategy,
+                                 @Value("${fanout.pool-size:0}") int poolSize,
+                                 @Value("${fanout.queue-capacity:1024}") int queueCapacity,
+                                 @Value("${fanout.timeout.parts-ms:5000}") long partsTimeout,
+                                 @Value("${fanout.timeout.groupset-ms:5000}") long groupsetTimeout) {
+        stageTimeoutMillis.put(PARTS_STAGE, partsTimeout);
+        stageTimeoutMillis.put(GROUPSET_STAGE, groupsetTimeout);
+        stageTimeoutMillis.keySet().forEach(s -> {
+            stageTimeouts.put(s, new AtomicLong());
+            stageFailures.put(s, new AtomicLong());
+        });
+        ExecutorService virtual = "VIRTUAL".equalsIgnoreCase(strategy) ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.boundedPool = null;
+            this.executor = virtual;
+            infoLogger.log("Fan out steps will run on virtual threads");
+        } else {
+            int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors() * 2;
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.boundedPool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "fan-out-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, (r, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Fan out executor is shut down");
+                }
+                // Queue is full, so the caller runs the step itself, which slows down new requests rather than failing them
+                ranOnCaller.incrementAndGet();
+                r.run();
+            });
+            this.boundedPool.allowCoreThreadTimeOut(true);
+            this.executor = boundedPool;
+            infoLogger.log("Fan out steps will run on a pool of " + threads + " threads, with a queue of " + queueCapacity);
+        }
+    }
+
+    private ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            warnLogger.log("Virtual threads are not available on this JDK, using a bounded pool instead");
+            return null;
+        }
+    }
+
+    /**
+     * Runs the passed-in step on the fan out executor.
+     *
+     * @param task the step
+     * @return the future, complete when the step is, or failed with a RejectedExecutionException if the executor is shut down
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        submitted.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                Throwable failure = null;
+                try {
+                    // A step cancelled before it starts is skipped
+                    if (!future.isDone()) {
+                        task.run();
+                    }
+                } catch (Throwable t) {
+                    failure = t;
+                }
+                // Counted down before the future completes, so the step is never seen as in flight once it is done
+                inFlight.decrementAndGet();
+                if (failure == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.decrementAndGet();
+            warnLogger.log("Fan out step rejected, as the executor is shut down");
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Waits for the passed-in steps of a stage to complete, for no longer than the stage's timeout.
+     * If the stage times out, its steps are cancelled, so any not yet started never run.
+     * A step that throws fails the stage once every step is done, with the exception the step threw, and is counted against the stage's failures, not its timeouts.
+     *
+     * @param stage   the stage
+     * @param futures the steps
+     * @return the outcome of the stage
+     */
+    public StageOutcome await(String stage, CompletableFuture<?>... futures) {
+        long timeout = stageTimeoutMillis.getOrDefault(stage, stageTimeoutMillis.get(PARTS_STAGE));
+        try {
+            CompletableFuture.allOf(futures).get(timeout, TimeUnit.MILLISECONDS);
+            return StageOutcome.COMPLETED;
+        } catch (TimeoutException e) {
+            stageTimeouts.computeIfAbsent(stage, s -> new AtomicLong()).incrementAndGet();
+            errorLogger.log("Stage: " + stage + " did not complete within " + timeout + "ms!!From: " + getClass());
+            for (CompletableFuture<?> future : futures) {
+                future.cancel(false);
+            }
+            return StageOutcome.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errorLogger.log("An InterruptedException occurred from method: await!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return StageOutcome.INTERRUPTED;
+        } catch (ExecutionException e) {
+            stageFailures.computeIfAbsent(stage, s -> new AtomicLong()).incrementAndGet();
+            errorLogger.log("An Exception occurred in a step of stage: " + stage + "!!See error message: " + e.getCause() + "!!From: " + getClass());
+            return StageOutcome.failed(e.getCause());
+        }
+    }
+
+    /**
+     * Gets the executor counters, for checking how busy the fan out executor is.
+     *
+     * @return the counters, by name
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("virtualThreads", boundedPool == null ? 1L : 0L);
+        stats.put("poolSize", boundedPool == null ? 0L : boundedPool.getPoolSize());
+        stats.put("activeThreads", boundedPool == null ? inFlight.get() : (long) boundedPool.getActiveCount());
+        stats.put("queueDepth", boundedPool == null ? 0L : boundedPool.getQueue().size());
+        stats.put("inFlight", (long) inFlight.get());
+        stats.put("peakInFlight", (long) peakInFlight.get());
+        stats.put("submitted", submitted.get());
+        stats.put("ranOnCaller", ranOnCaller.get());
+        stageTimeouts.forEach((stage, count) -> stats.put("timeouts." + stage, count.get()));
+        stageFailures.forEach((stage, count) -> stats.put("failures." + stage, count.get()));
+        return stats;
+    }
+
+    /**
+     * Stops the executor when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The outcome of waiting for the steps of a stage, telling a stage that timed out apart from one with a step that threw.
+     */
+    public static final class StageOutcome {
+        private static final StageOutcome COMPLETED = new StageOutcome(true, "Completed", null);
+        private static final StageOutcome TIMED_OUT = new StageOutcome(false, "Timed out", null);
+        private static final StageOutcome INTERRUPTED = new StageOutcome(false, "Interrupted", null);
+        private final boolean completed;
+        private final String message;
+        private final Throwable failure;
+
+        private StageOutcome(boolean completed, String message, Throwable failure) {
+            this.completed = completed;
+            this.message = message;
+            this.failure = failure;
+        }
+
+        private static StageOutcome failed(Throwable failure) {
+            return new StageOutcome(false, failure.getMessage() == null ? failure.toString() : failure.getMessage(), failure);
+        }
+
+        /**
+         * Did every step complete in time without throwing.
+         *
+         * @return the boolean
+         */
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        /**
+         * Did the stage time out.
+         *
+         * @return the boolean
+         */
+        public boolean isTimedOut() {
+            return this == TIMED_OUT;
+        }
+
+        /**
+         * Gets the exception a step threw.
+         *
+         * @return the failure, or empty if no step threw
+         */
+        public Optional<Throwable> getFailure() {
+            return Optional.ofNullable(failure);
+        }
+
+        /**
+         * Gets a message for the outcome, to show on FE: "Timed out", or the message of the exception a step threw.
+         *
+         * @return the message
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "StageOutcome{" +
+                    "completed=" + completed +
+                    ", message='" + message + '\'' +
+                    '}';
+        }
+    }
+}
@@ -1,7 +1,14 @@
 package com.homeapp.backend.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.homeapp.backend.models.bike.BikePage;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
 import com.homeapp.backend.models.bike.Frame;
 import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.logger.ErrorLogger;
@@ -13,9 +20,9 @@ import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.function.Predicate;
 
 import static com.homeapp.backend.models.bike.Enums.BrakeType.*;
 import static com.homeapp.backend.models.bike.Enums.FrameStyle.*;
@@ -30,41 +37,37 @@ import static com.homeapp.backend.models.bike.Enums.ShifterStyle.*;
 @Service
 public class FullBikeService {
 
-    private FullBike bike;
     private static final ObjectMapper om = new ObjectMapper();
-    private static final String JSON_BIKES_FILE = "src/main/resources/bikes.json";
+    private static final ObjectWriter BIKE_WRITER = om.writerFor(FullBike.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String ID_SEQUENCE = "bikes";
     private static final String JSON_BIKES_FILE_BACKUP = "src/main/resources/bikes_backup.json";
-    private List<FullBike> bikeList;
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final BikeRepository bikes = new BikeRepository();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
     private final ShimanoGroupsetService shimanoGroupsetService;
+    private final BikeStoreService bikeStore;
+    private final IdAllocatorService idAllocator;
 
     /**
      * Instantiates a new Full bike service.
-     * This instantiation is Autowired to allow this Service class to use methods from the Shimano Groupset Service class and the Exception Handler.
+     * This instantiation is Autowired to allow this Service class to use methods from the Shimano Groupset Service class, the Bike Store Service and the ID Allocator Service.
      * Sets the bike object on instance to a new FullBike so has no influence from previous calls.
-     * Sets the list of bikes on the instance to a fresh load of the bike file.
+     * Loads the saved bikes into the Bike Repository on the instance, from the bike file and its journal.
+     * New bike IDs then carry on from the highest ID of any bike loaded.
      *
      * @param shimanoGroupsetService the Shimano Groupset service
+     * @param bikeStore              the bike store
+     * @param idAllocator            the id allocator
      */
     @Autowired
-    public FullBikeService(@Lazy ShimanoGroupsetService shimanoGroupsetService) {
+    public FullBikeService(@Lazy ShimanoGroupsetService shimanoGroupsetService, BikeStoreService bikeStore, IdAllocatorService idAllocator) {
         this.shimanoGroupsetService = shimanoGroupsetService;
-        this.bike = new FullBike();
-        this.bikeList = readBikesFile();
-    }
-
-    private List<FullBike> readBikesFile() {
-        infoLogger.log("Reading Bikes From File");
-        try {
-            File file = new File(JSON_BIKES_FILE);
-            return om.readValue(file, new TypeReference<>() {
-            });
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: readBikesFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
-        }
-        return new ArrayList<>();
+        this.bikeStore = bikeStore;
+        this.idAllocator = idAllocator;
+        bikeStore.load(bikes);
+        idAllocator.recover(ID_SEQUENCE, bikes.nextId() - 1);
     }
 
     /**
@@ -85,94 +88,150 @@ public class FullBikeService {
 
     /**
      * Write bikes to normal bike file.
-     * Sets the bike list on the instance to the passed in list, to avoid an additional call to read the file.
+     * Sets the bikes in the Bike Repository on the instance to the passed in list, to avoid an additional call to read the file.
      *
      * @param list the list
      */
     public void writeBikesToFile(List<FullBike> list) {
-        infoLogger.log("Writing Bikes Back to File");
         try {
-            om.writeValue(new File(JSON_BIKES_FILE), list);
-            bikeList = list;
+            bikeStore.replaceAll(list);
         } catch (IOException e) {
             errorLogger.log("An IOException occurred from method: writeBikesToFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
         }
     }
 
-    private List<FullBike> getBikeList() {
-        return bikeList;
-    }
-
     /**
-     * Gets bike from the instance.
+     * Gets all full bikes on the instance.
+     * For efficiency this method does not read the file.
+     * Bikes are returned in the order they were saved, in a new list, so the caller can't change the saved bikes by changing it.
      *
-     * @return the bike on the instance.
+     * @return a list of full bikes.
      */
-    public FullBike getBike() {
-        return bike;
+    public List<FullBike> getAllFullBikes() {
+        List<FullBike> bikeList = bikes.findAll();
+        warnLogger.log("Getting list of all bikes, number returned: " + bikeList.size());
+        return bikeList;
     }
 
     /**
-     * Sets bike to this instance.
+     * Gets a page of saved bikes, in the order they were saved, keeping only those that match every filter passed in.
+     * Only the bikes on the page are read, so a page costs the same however many bikes are saved.
+     * A cursor is only good until the application restarts.
      *
-     * @param bike the bike
+     * @param cursor        the next cursor from the page before, or null for the first page
+     * @param limit         the most bikes on the page, between 1 and 500
+     * @param frameStyle    the frame style, or null for any
+     * @param brakeType     the brake type, or null for any
+     * @param handleBarType the handle bar type, or null for any
+     * @return the page, or empty if the cursor could not be read
      */
-    public void setBike(FullBike bike) {
-        this.bike = bike;
+    public Optional<BikePage> getBikePage(String cursor, int limit, FrameStyle frameStyle, BrakeType brakeType, HandleBarType handleBarType) {
+        long after = -1;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                warnLogger.log("Could not read bike page cursor: " + cursor);
+                return Optional.empty();
+            }
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        NavigableMap<Long, FullBike> page = bikes.findPage(after, size, filterFor(frameStyle, brakeType, handleBarType));
+        String nextCursor = page.size() == size ? String.valueOf(page.lastKey()) : null;
+        warnLogger.log("Getting page of bikes after cursor: " + cursor + ", number returned: " + page.size());
+        return Optional.of(new BikePage(new ArrayList<>(page.values()), nextCursor));
     }
 
     /**
-     * Gets all full bikes on the instance.
-     * For efficiency this method does not read the file.
+     * Writes every saved bike that matches every filter passed in to the output stream as newline delimited JSON, one bike per line, in the order they were saved.
+     * Each bike is written as it is reached, through a single JSON generator, so memory use stays the same however many bikes are saved.
      *
-     * @return a list of full bikes.
+     * @param out           the output stream, left open
+     * @param frameStyle    the frame style, or null for any
+     * @param brakeType     the brake type, or null for any
+     * @param handleBarType the handle bar type, or null for any
+     * @return the number of bikes written
+     * @throws IOException if the output stream could not be written to
      */
-    public List<FullBike> getAllFullBikes() {
-        List<FullBike> bikeList = getBikeList();
-        warnLogger.log("Getting list of all bikes, number returned: " + bikeList.size());
-        return bikeList;
+    public long writeBikes(OutputStream out, FrameStyle frameStyle, BrakeType brakeType, HandleBarType handleBarType) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = om.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<FullBike> matching = bikes.stream().filter(filterFor(frameStyle, brakeType, handleBarType)).iterator();
+            while (matching.hasNext()) {
+                BIKE_WRITER.writeValue(generator, matching.next());
+                generator.writeRaw('\n');
+                written++;
+            }
+        }
+        warnLogger.log("Streamed bikes, number written: " + written);
+        return written;
+    }
+
+    private static Predicate<FullBike> filterFor(FrameStyle frameStyle, BrakeType brakeType, HandleBarType handleBarType) {
+        return b -> (frameStyle == null || (b.getFrame() != null && frameStyle.equals(b.getFrame().getFrameStyle())))
+                && (brakeType == null || brakeType.equals(b.getBrakeType()))
+                && (handleBarType == null || handleBarType.equals(b.getHandleBarType()));
     }
 
     /**
      * Create and save a Full Bike to the file.
-     * Bike passed in is given a unique ID before getting saved to the file.
+     * Bike passed in is given a unique ID from the ID Allocator, never given to any other bike, before getting saved to the file.
+     * Only the new bike is written, to the bike journal, at version 0.
      * Method does not check the existence of this bike, or check for similar bikes. It simply adds this bike to the list.
      *
      * @param bike the bike
      */
     public void create(FullBike bike) {
         infoLogger.log("Adding new bike!");
-        long newId = bikeList.size() + 1;
+        long newId = idAllocator.next(ID_SEQUENCE);
         bike.setFullBikeId(newId);
-        bikeList.add(bike);
-        writeBikesToFile(bikeList);
+        bike.setVersion(0);
+        try {
+            bikeStore.add(bike);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: create!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
     }
 
     /**
      * Update bike full bike.
      * Checks passed in bike meets with standards for each component.
-     * If bike with the same name is on file this bike is replaced.
+     * If bike with the same name is on file this bike is replaced, as long as it is still at the version the passed in bike was changed from.
+     * A bike not yet on file is saved if the passed in bike is at version 0.
+     * The saved bike is given the next version. Only the name being updated is locked, so updates to different bikes run at the same time.
      *
      * @param bike the bike
-     * @return the full bike
+     * @return the full bike, or empty if the bike on file has been updated or deleted since the passed in version
      */
-    public FullBike updateBike(FullBike bike) {
+    public Optional<FullBike> updateBike(FullBike bike) {
         infoLogger.log("Updating bike on File!");
-        setBike(bike);
-        checkBikeShifters(bike);
-        checkFrameStyle(bike);
-        checkBrakeCompatibility(bike);
-        if (getBikeUsingName(bike.getBikeName()).isPresent()) {
-            removeBikeFromFile(bike.getBikeName());
+        applyDesignRules(bike);
+        try {
+            if (!bikeStore.replace(bike, bike.getVersion())) {
+                warnLogger.log("Bike on file has been changed since version " + bike.getVersion() + ", not updating bike: " + bike.getBikeName());
+                return Optional.empty();
+            }
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: updateBike!!See error message: " + e.getMessage() + "!!From: " + getClass());
         }
-        bikeList.add(bike);
-        writeBikesToFile(bikeList);
-        return bike;
+        return Optional.of(bike);
     }
 
-    private void removeBikeFromFile(String bikeName) {
-        bikeList.removeIf(i -> i.getBikeName().equals(bikeName));
-        writeBikesToFile(bikeList);
+    /**
+     * Applies the design rules for each component to the passed-in bike, the same rules used when a bike is updated.
+     * Sets the shifter style, gear cables, and disc brake compatibility to match the rest of the design.
+     * The gear cables are set before the shifters are chosen from them, so applying the rules once is enough, and applying them again changes nothing.
+     *
+     * @param bike the bike
+     * @return the same bike, after the rules are applied
+     */
+    public FullBike applyDesignRules(FullBike bike) {
+        checkFrameStyle(bike);
+        checkBikeShifters(bike);
+        checkBrakeCompatibility(bike);
+        return bike;
     }
 
     private void checkBrakeCompatibility(FullBike bike) {
@@ -227,7 +286,7 @@ public class FullBikeService {
      *
      * @return the full bike
      */
-    public FullBike startNewBike() {
+    public synchronized FullBike startNewBike() {
         infoLogger.log("Starting new bike, service method.");
         Optional<FullBike> b = getBikeUsingName("Your Custom Bike");
         if (b.isPresent()) {
@@ -236,7 +295,7 @@ public class FullBikeService {
         } else {
             Frame frame = new Frame();
             frame.setFrameStyle(NONE_SELECTED);
-            bike = new FullBike();
+            FullBike bike = new FullBike();
             bike.setBikeName("Your Custom Bike");
             bike.setFrame(frame);
             bike.setBrakeType(NO_SELECTION);
@@ -259,9 +318,18 @@ public class FullBikeService {
      */
     public Optional<FullBike> getBikeUsingName(String bikeName) {
         warnLogger.log("Getting single bike with bike name: " + bikeName);
-        return bikeList.stream()
-                .filter(item -> item.getBikeName().equals(bikeName))
-                .findFirst();
+        return bikes.findByName(bikeName);
+    }
+
+    /**
+     * Gets bike using id.
+     *
+     * @param bikeId the bike id
+     * @return the bike
+     */
+    public Optional<FullBike> getBikeUsingId(long bikeId) {
+        warnLogger.log("Getting single bike with ID: " + bikeId);
+        return bikes.findById(bikeId);
     }
 
     /**
@@ -271,8 +339,11 @@ public class FullBikeService {
      */
     public void deleteBike(long bikeId) {
         warnLogger.log("Deleting Bike with ID: " + bikeId);
-        bikeList.removeIf(i -> i.getFullBikeId() == (bikeId));
-        writeBikesToFile(bikeList);
+        try {
+            bikeStore.remove(bikeId);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: deleteBike!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
     }
 
     /**
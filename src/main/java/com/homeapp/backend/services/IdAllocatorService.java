@@ -0,0 +1,137 @@
+package com.homeapp.backend.services;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The ID Allocator Service.
+ * Gives out IDs for saved objects, such as Full Bikes and Sticky Notes, from named sequences that only ever go up, so an ID is never given out twice, even after a delete.
+ * Each sequence is a counter that any number of threads can take IDs from at once without locking.
+ * IDs are reserved on disk a block at a time, so the ids file is only written once per block rather than once per ID.
+ * Each block starts where the last one ended, so what is written to the ids file does not depend on which thread reserves the block.
+ * No ID is given out until the block holding it is on disk.
+ * After a restart each sequence carries on from the end of its last reserved block, skipping any IDs from it that were never given out.
+ * If the ids file is lost, each sequence carries on from the highest ID its service finds saved.
+ */
+@Service
+public class IdAllocatorService {
+
+    private static final ObjectMapper om = new ObjectMapper();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final Path idsFile;
+    private final int blockSize;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+    private final Map<String, Long> reserved = new TreeMap<>();
+
+    /**
+     * Instantiates a new ID Allocator Service, reading the blocks already reserved from the ids file.
+     *
+     * @param idsFile   the ids file
+     * @param blockSize the number of IDs reserved at a time
+     */
+    @Autowired
+    public IdAllocatorService(@Value("${ids.file:src/main/ids/ids.json}") String idsFile,
+                              @Value("${ids.block-size:100}") int blockSize) {
+        this.idsFile = Paths.get(idsFile);
+        this.blockSize = Math.max(1, blockSize);
+        if (Files.isRegularFile(this.idsFile)) {
+            try {
+                reserved.putAll(om.readValue(this.idsFile.toFile(), new TypeReference<Map<String, Long>>() {
+                }));
+            } catch (IOException e) {
+                errorLogger.log("An IOException occurred from method: IdAllocatorService!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            }
+        }
+        infoLogger.log("ID allocator opened with reserved blocks: " + reserved);
+    }
+
+    /**
+     * Makes sure the passed-in sequence never gives out an ID at or below the highest one already saved.
+     * Called once a service has loaded what it has saved, in case the ids file is behind it or was lost.
+     *
+     * @param sequence  the sequence
+     * @param highestId the highest id already saved
+     */
+    public void recover(String sequence, long highestId) {
+        sequenceFor(sequence).last.accumulateAndGet(highestId, Math::max);
+    }
+
+    /**
+     * Gives out the next ID from the passed-in sequence, higher than any given out before.
+     * Only the thread that runs past the end of the reserved block waits, while the next block is written to the ids file.
+     *
+     * @param sequence the sequence
+     * @return the id
+     * @throws UncheckedIOException if the block holding the id could not be written to the ids file; the id is never given out
+     */
+    public long next(String sequence) {
+        Sequence s = sequenceFor(sequence);
+        long id = s.last.incrementAndGet();
+        if (id > s.ceiling) {
+            reserve(sequence, s, id);
+        }
+        return id;
+    }
+
+    /**
+     * Moves the end of the reserved block on, a whole block at a time, until it covers the passed-in ID, and writes it to the ids file.
+     * If the ids file cannot be written, the block is left where it was, so the next thread past it tries again.
+     */
+    private synchronized void reserve(String name, Sequence s, long id) {
+        if (id <= s.ceiling) {
+            return;
+        }
+        long ceiling = s.ceiling;
+        while (ceiling < id) {
+            ceiling += blockSize;
+        }
+        Map<String, Long> next = new TreeMap<>(reserved);
+        next.put(name, ceiling);
+        try {
+            Files.createDirectories(idsFile.toAbsolutePath().getParent());
+            AtomicFiles.write(idsFile, om.writeValueAsBytes(next));
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: reserve!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+        reserved.put(name, ceiling);
+        s.ceiling = ceiling;
+    }
+
+    private Sequence sequenceFor(String name) {
+        return sequences.computeIfAbsent(name, n -> {
+            synchronized (this) {
+                return new Sequence(reserved.getOrDefault(n, 0L));
+            }
+        });
+    }
+
+    /**
+     * A named sequence, holding the last ID given out and the end of the block reserved on disk.
+     */
+    private static final class Sequence {
+        private final AtomicLong last;
+        private volatile long ceiling;
+
+        private Sequence(long reservedUpTo) {
+            this.last = new AtomicLong(reservedUpTo);
+            this.ceiling = reservedUpTo;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Link Crawler Service.
+ * Fetches the link of every Part passed-in, many at once, handing each response to a Page Handler.
+ * Each link is requested once, and the Page Handler reads both the status code and the page from that one response.
+ * Parts with a stored ETag or Last-Modified date are requested conditionally, so an unchanged page comes back as 304 Not Modified with no body.
+ * Parts are grouped by retailer host, and each host has its own small number of workers, so one slow retailer never holds up the others.
+ * A full crawl takes about as long as the slowest host, rather than the sum of every host.
+ * To be polite to each retailer, requests to the same host are spaced out, and failed requests are retried with a growing back off.
+ * A crawl can be given a time budget, after which no new links are started and the rest are counted as skipped.
+ * When the links.crawler.replay-url property is set, every link is fetched from that server instead of the retailer, as its host followed by its path,
+ * so recorded retailer pages can be crawled without a network. The Part's link is left as it is, so its retailer is still found from the real host.
+ * A replay server only has the pages that were recorded, so nothing crawled from it is written back to the links file or the price history.
+ */
+@Service
+public class LinkCrawlerService {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final int perHostLimit;
+    private final long politenessNanos;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final int timeoutMillis;
+    private final int maxThreads;
+    private final String replayUrl;
+
+    /**
+     * Instantiates a new Link Crawler Service.
+     *
+     * @param perHostLimit  the most requests to run at once against the same host
+     * @param politenessMs  the least time in milliseconds between starting two requests to the same host
+     * @param maxAttempts   the most times a link is tried before it is reported as failed
+     * @param backoffMs     the wait in milliseconds before the first retry, doubled for each retry after
+     * @param timeoutMs     the most time in milliseconds to wait for a single request
+     * @param maxThreads    the most requests to run at once across every host
+     */
+    public LinkCrawlerService(int perHostLimit, long politenessMs, int maxAttempts, long backoffMs, int timeoutMs, int maxThreads) {
+        this(perHostLimit, politenessMs, maxAttempts, backoffMs, timeoutMs, maxThreads, "");
+    }
+
+    /**
+     * Instantiates a new Link Crawler Service.
+     *
+     * @param perHostLimit  the most requests to run at once against the same host
+     * @param politenessMs  the least time in milliseconds between starting two requests to the same host
+     * @param maxAttempts   the most times a link is tried before it is reported as failed
+     * @param backoffMs     the wait in milliseconds before the first retry, doubled for each retry after
+     * @param timeoutMs     the most time in milliseconds to wait for a single request
+     * @param maxThreads    the most requests to run at once across every host
+     * @param replayUrl     the server to fetch every link from instead of the retailer, or empty to fetch from the retailer
+     */
+    @Autowired
+    public LinkCrawlerService(@Value("${links.crawler.per-host-limit:2}") int perHostLimit,
+                              @Value("${links.crawler.politeness-ms:500}") long politenessMs,
+                              @Value("${links.crawler.max-attempts:3}") int maxAttempts,
+                              @Value("${links.crawler.backoff-ms:500}") long backoffMs,
+                              @Value("${links.crawler.timeout-ms:5000}") int timeoutMs,
+                              @Value("${links.crawler.max-threads:16}") int maxThreads,
+                              @Value("${links.crawler.replay-url:}") String replayUrl) {
+        this.perHostLimit = Math.max(1, perHostLimit);
+        this.politenessNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, politenessMs));
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoffMs);
+        this.timeoutMillis = timeoutMs;
+        this.maxThreads = Math.max(1, maxThreads);
+        this.replayUrl = replayUrl.endsWith("/") ? replayUrl.substring(0, replayUrl.length() - 1) : replayUrl;
+        if (!this.replayUrl.isEmpty()) {
+            warnLogger.log("Links will be fetched from: " + this.replayUrl + ", not from the retailers");
+        }
+    }
+
+    /**
+     * Fetches the link of every passed-in Part, waiting until they are all done.
+     * The Page Handler is called from several threads at once, once for each Part.
+     *
+     * @param parts   the parts
+     * @param handler the page handler
+     * @return the crawl counters, by name, including the bytes downloaded
+     */
+    public Map<String, Long> crawl(List<Part> parts, PageHandler handler) {
+        return crawl(parts, handler, 0);
+    }
+
+    /**
+     * Fetches the link of every passed-in Part, until they are all done or the time budget runs out.
+     * Links already started when the budget runs out are finished, links not yet started are skipped and not handed to the Page Handler.
+     *
+     * @param parts        the parts
+     * @param handler      the page handler
+     * @param budgetMillis the most time in milliseconds to spend starting links, or 0 for no limit
+     * @return the crawl counters, by name, including the bytes downloaded and the links skipped
+     */
+    public Map<String, Long> crawl(List<Part> parts, PageHandler handler, long budgetMillis) {
+        long start = System.nanoTime();
+        long budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+        Map<String, Host> hosts = new LinkedHashMap<>();
+        parts.forEach(part -> hosts.computeIfAbsent(hostOf(part.getLink()), h -> new Host()).parts.add(part));
+        int workers = hosts.values().stream().mapToInt(h -> Math.min(perHostLimit, h.parts.size())).sum();
+        Map<String, AtomicLong> counters = new LinkedHashMap<>();
+        for (String name : List.of("requests", "retries", "failures", "notModified", "bytes")) {
+            counters.put(name, new AtomicLong());
+        }
+        if (workers > 0) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(workers, maxThreads), r -> {
+                Thread t = new Thread(r, "link-crawler-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (Host host : hosts.values()) {
+                    for (int i = 0; i < Math.min(perHostLimit, host.parts.size()); i++) {
+                        futures.add(pool.submit(() -> drain(host, handler, counters, start, budgetNanos)));
+                    }
+                }
+                for (Future<?> f : futures) {
+                    f.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errorLogger.log("An InterruptedException occurred from method: crawl!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            } catch (ExecutionException e) {
+                errorLogger.log("An ExecutionException occurred from method: crawl!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("parts", (long) parts.size());
+        stats.put("hosts", (long) hosts.size());
+        counters.forEach((name, count) -> stats.put(name, count.get()));
+        stats.put("skipped", hosts.values().stream().mapToLong(h -> h.parts.size()).sum());
+        stats.put("crawlMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        infoLogger.log("Crawled " + parts.size() + " links across " + hosts.size() + " hosts in " + stats.get("crawlMillis") + "ms");
+        return stats;
+    }
+
+    /**
+     * Is every link fetched from a replay server, rather than from the retailer.
+     *
+     * @return the boolean
+     */
+    public boolean isReplaying() {
+        return !replayUrl.isEmpty();
+    }
+
+    /**
+     * Gets the host that the passed-in link is rate limited under.
+     * Links to the same retailer share a host, with or without the leading www.
+     *
+     * @param link the link
+     * @return the host, with the port when one is given
+     */
+    private static String hostOf(String link) {
+        try {
+            URI uri = new URI(link);
+            String host = uri.getHost() == null ? "unknown" : uri.getHost().toLowerCase(Locale.ROOT);
+            if (host.startsWith("www.")) {
+                host = host.substring(4);
+            }
+            return uri.getPort() == -1 ? host : host + ":" + uri.getPort();
+        } catch (URISyntaxException | NullPointerException e) {
+            return "unknown";
+        }
+    }
+
+    /**
+     * Gets the URL the passed-in link is fetched from, which is the link itself unless a replay server is set.
+     *
+     * @param link the link
+     * @return the url
+     */
+    private String urlFor(String link) {
+        if (replayUrl.isEmpty()) {
+            return link;
+        }
+        try {
+            URI uri = new URI(link);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return replayUrl + "/" + hostOf(link) + path + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        } catch (URISyntaxException | NullPointerException e) {
+            throw new IllegalArgumentException("Cannot replay link: " + link, e);
+        }
+    }
+
+    private void drain(Host host, PageHandler handler, Map<String, AtomicLong> counters, long start, long budgetNanos) {
+        Part part;
+        while (!Thread.currentThread().isInterrupted() && (budgetNanos == 0 || System.nanoTime() - start < budgetNanos) && (part = host.parts.poll()) != null) {
+            try {
+                fetch(host, part, handler, counters);
+            } catch (RuntimeException e) {
+                // One bad page must not stop the rest of the host's parts being fetched
+                counters.get("failures").incrementAndGet();
+                errorLogger.log("An Exception occurred from method: drain!!See error message: " + e + "!!For link: " + part.getLink());
+            }
+        }
+    }
+
+    private void fetch(Host host, Part part, PageHandler handler, Map<String, AtomicLong> counters) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                awaitTurn(host);
+                counters.get("requests").incrementAndGet();
+                Connection connection = Jsoup.connect(urlFor(part.getLink())).timeout(timeoutMillis).ignoreHttpErrors(true);
+                if (part.getEtag() != null) {
+                    connection.header("If-None-Match", part.getEtag());
+                }
+                if (part.getLastModified() != null) {
+                    connection.header("If-Modified-Since", part.getLastModified());
+                }
+                Connection.Response response = connection.execute();
+                counters.get("bytes").addAndGet(response.bodyAsBytes().length);
+                if (response.statusCode() == 304) {
+                    counters.get("notModified").incrementAndGet();
+                }
+                if (!isRetryable(response.statusCode()) || attempt >= maxAttempts) {
+                    handler.onResponse(part, response);
+                    return;
+                }
+                warnLogger.log("Retrying: " + part.getLink() + " after status: " + response.statusCode());
+            } catch (IOException e) {
+                if (attempt >= maxAttempts) {
+                    counters.get("failures").incrementAndGet();
+                    handler.onFailure(part, e);
+                    return;
+                }
+                warnLogger.log("Retrying: " + part.getLink() + " after: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                // A malformed link will never succeed, so it is not retried
+                counters.get("failures").incrementAndGet();
+                handler.onFailure(part, new IOException(e.getMessage(), e));
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            counters.get("retries").incrementAndGet();
+            try {
+                Thread.sleep(backoffMillis * (1L << Math.min(attempt - 1, 16)) + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    private void awaitTurn(Host host) throws InterruptedException {
+        long wait;
+        synchronized (host) {
+            long now = System.nanoTime();
+            long turn = Math.max(now, host.nextTurn);
+            host.nextTurn = turn + politenessNanos;
+            wait = turn - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * The Page Handler, called with the result of fetching each Part's link.
+     */
+    public interface PageHandler {
+
+        /**
+         * Called with the response for a Part's link, whatever its status code.
+         *
+         * @param part     the part
+         * @param response the response
+         */
+        void onResponse(Part part, Connection.Response response);
+
+        /**
+         * Called when a Part's link could not be fetched, once every attempt has failed.
+         *
+         * @param part the part
+         * @param e    the exception from the last attempt
+         */
+        void onFailure(Part part, IOException e);
+    }
+
+    private static final class Host {
+        private final Queue<Part> parts = new ConcurrentLinkedQueue<>();
+        private long nextTurn;
+    }
+}
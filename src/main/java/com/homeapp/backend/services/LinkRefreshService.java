@@ -0,0 +1,414 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.retailer.RetailerExtractor;
+import com.homeapp.backend.models.retailer.ScrapedPart;
+import org.jsoup.Connection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Link Refresh Service.
+ * Checks the link of every Part in the links file, updating each Part's name and price from the retailer's website.
+ * The name and price are read by the Retailer Extractor for the link's host.
+ * Links are fetched many at once by the Link Crawler Service, which limits how hard each retailer is hit.
+ * Pages that have not changed since the last refresh are not downloaded or parsed again, the Part's name and price are kept as they are.
+ * Runs in the background on a schedule, set by the links.refresh properties, so the application starts straight away and serves the last-known Parts Catalog until a refresh completes.
+ * Every price confirmed by a refresh is added to the Part's price history.
+ * In INCREMENTAL mode, set by the links.refresh.mode property, each refresh only checks the batch of Parts most in need of it, picked by the Refresh Queue,
+ * and stops starting new links once its time budget runs out, so the load of each refresh stays the same however big the catalog grows.
+ * In FULL mode every Part is checked each time. In both modes failing Parts are kept in the links file, marked as not up to date, so they can be retried.
+ * Once a refresh has written the links file, the Parts Catalog is reloaded. Each write is kept as a generation by the Catalog Store Service, and can be rolled back to.
+ * When the Link Crawler Service is fetching from a replay server, links with no recorded page come back as 404 Not Found,
+ * so a refresh never writes the links file or records prices, and the Parts Catalog is left as it was.
+ */
+@Service
+public class LinkRefreshService {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final CatalogStoreService catalogStoreService;
+    private final PartsCatalogService partsCatalogService;
+    private final LinkCrawlerService linkCrawlerService;
+    private final RetailerExtractorService retailerExtractorService;
+    private final PriceHistoryService priceHistoryService;
+    private final boolean enabled;
+    private final boolean incremental;
+    private final int batchSize;
+    private final long timeBudgetMillis;
+    private final RefreshQueue refreshQueue;
+    private final ExecutorService refreshThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "link-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile String status = "IDLE";
+    private volatile LocalDateTime lastStarted;
+    private volatile LocalDateTime lastFinished;
+    private volatile long lastDurationMillis;
+    private volatile int lastProblemCount;
+    private volatile int lastPartCount;
+    private volatile int lastUnchangedCount;
+    private volatile int lastReparsedCount;
+    private volatile long completedRuns;
+    private volatile Map<String, Long> lastCrawl = Map.of();
+    private volatile List<Part> catalogParts;
+    private String today;
+
+    /**
+     * Instantiates a new Link Refresh Service.
+     *
+     * @param catalogStoreService      the catalog store service
+     * @param partsCatalogService      the parts catalog service
+     * @param linkCrawlerService       the link crawler service
+     * @param retailerExtractorService the retailer extractor service
+     * @param priceHistoryService      the price history service
+     * @param enabled                  whether the scheduled refresh runs
+     * @param mode                     FULL to check every Part each refresh, or INCREMENTAL to check only the Parts most in need of it
+     * @param batchSize                the most Parts checked by each INCREMENTAL refresh
+     * @param timeBudgetMs             the most time in milliseconds each INCREMENTAL refresh spends starting links
+     * @param retryBackoffMs           the wait in milliseconds before a failed Part is checked again, doubled for each failure after
+     * @param freshWithinMs            how recently in milliseconds a Part must have been refreshed to count as fresh
+     */
+    @Autowired
+    public LinkRefreshService(CatalogStoreService catalogStoreService, PartsCatalogService partsCatalogService, LinkCrawlerService linkCrawlerService, RetailerExtractorService retailerExtractorService, PriceHistoryService priceHistoryService,
+                              @Value("${links.refresh.enabled:true}") boolean enabled,
+                              @Value("${links.refresh.mode:FULL}") String mode,
+                              @Value("${links.refresh.batch-size:100}") int batchSize,
+                              @Value("${links.refresh.time-budget-ms:60000}") long timeBudgetMs,
+                              @Value("${links.refresh.retry-backoff-ms:3600000}") long retryBackoffMs,
+                              @Value("${links.refresh.fresh-within-ms:86400000}") long freshWithinMs) {
+        this.catalogStoreService = catalogStoreService;
+        this.partsCatalogService = partsCatalogService;
+        this.linkCrawlerService = linkCrawlerService;
+        this.retailerExtractorService = retailerExtractorService;
+        this.priceHistoryService = priceHistoryService;
+        this.enabled = enabled;
+        this.incremental = mode.equalsIgnoreCase("INCREMENTAL");
+        this.batchSize = Math.max(1, batchSize);
+        this.timeBudgetMillis = Math.max(0, timeBudgetMs);
+        this.refreshQueue = new RefreshQueue(retryBackoffMs, freshWithinMs);
+    }
+
+    /**
+     * Runs the refresh on the schedule set by the links.refresh.initial-delay-ms and links.refresh.interval-ms properties.
+     * Does nothing when the scheduled refresh is disabled.
+     */
+    @Scheduled(initialDelayString = "${links.refresh.initial-delay-ms:600000}", fixedDelayString = "${links.refresh.interval-ms:21600000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refreshNow();
+        }
+    }
+
+    /**
+     * Starts a refresh in the background, unless one is already running.
+     *
+     * @return true if a refresh was started
+     */
+    public boolean requestRefresh() {
+        if (running.get()) {
+            warnLogger.log("Link refresh already running, not starting another");
+            return false;
+        }
+        refreshThread.execute(this::refreshNow);
+        return true;
+    }
+
+    /**
+     * Refreshes the Parts' links on the calling thread, unless a refresh is already running.
+     * Checks every Part in FULL mode, or the next batch from the Refresh Queue in INCREMENTAL mode.
+     * Records the status, time taken and number of problem links of the run.
+     */
+    public void refreshNow() {
+        if (!running.compareAndSet(false, true)) {
+            warnLogger.log("Link refresh already running, skipping this run");
+            return;
+        }
+        status = "RUNNING";
+        lastStarted = LocalDateTime.now();
+        long start = System.nanoTime();
+        try {
+            if (incremental) {
+                checkStalestLinks();
+            } else {
+                checkAllLinks();
+            }
+            partsCatalogService.reload();
+            status = "IDLE";
+        } catch (RuntimeException e) {
+            status = "FAILED";
+            errorLogger.log("An Exception occurred from method: refreshNow!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        } finally {
+            lastDurationMillis = (System.nanoTime() - start) / 1_000_000;
+            lastFinished = LocalDateTime.now();
+            completedRuns++;
+            running.set(false);
+            infoLogger.log("Link refresh finished in " + lastDurationMillis + "ms");
+        }
+    }
+
+    /**
+     * Rolls the links file back to the passed-in generation, and reloads the Parts Catalog from it.
+     * Not done while a refresh is running, as the refresh would write over it.
+     *
+     * @param generation the generation
+     * @return true if the links file was rolled back, false if a refresh is running or the generation could not be put back
+     */
+    public boolean rollbackCatalog(long generation) {
+        if (!running.compareAndSet(false, true)) {
+            warnLogger.log("Link refresh running, not rolling back the links file");
+            return false;
+        }
+        try {
+            if (!catalogStoreService.rollback(generation)) {
+                return false;
+            }
+            partsCatalogService.reload();
+            return true;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Gets the status of the link refresh.
+     *
+     * @return the status values, by name
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("enabled", enabled);
+        s.put("mode", incremental ? "INCREMENTAL" : "FULL");
+        s.put("status", status);
+        s.put("lastStarted", lastStarted == null ? null : lastStarted.toString());
+        s.put("lastFinished", lastFinished == null ? null : lastFinished.toString());
+        s.put("lastDurationMillis", lastDurationMillis);
+        s.put("lastPartCount", lastPartCount);
+        s.put("lastProblemCount", lastProblemCount);
+        s.put("lastUnchangedCount", lastUnchangedCount);
+        s.put("lastReparsedCount", lastReparsedCount);
+        s.put("completedRuns", completedRuns);
+        lastCrawl.forEach((name, value) -> s.put("lastCrawl." + name, value));
+        retailerExtractorService.getStats().forEach((name, value) -> s.put("extraction." + name, value));
+        getFreshness().forEach((name, value) -> s.put("freshness." + name, value));
+        return s;
+    }
+
+    /**
+     * Gets how fresh the Parts Catalog is: how many Parts were refreshed recently, how many are failing, and how long since the oldest was refreshed.
+     *
+     * @return the freshness values, by name
+     */
+    public Map<String, Long> getFreshness() {
+        List<Part> parts = catalogParts;
+        return refreshQueue.getFreshness(parts == null ? partsCatalogService.getAllParts() : parts, System.currentTimeMillis());
+    }
+
+    /**
+     * Stops the refresh thread when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshThread.shutdownNow();
+    }
+
+    /**
+     * A method that runs through the manually updated list of links in the links.json file.
+     * Collects all problem links and sends these to reporter
+     * Every Part is written back to the links file, the same as an incremental refresh. Parts whose link could not be reached are marked as not up to date, rather than removed.
+     */
+    private void checkAllLinks() {
+        List<Part> allParts = readLinksFile();
+        refreshParts(allParts, 0);
+        if (writePartsToFile(new LinkedList<>(allParts))) {
+            catalogParts = allParts;
+        }
+    }
+
+    /**
+     * Runs through the next batch of links from the Refresh Queue, the failed and the most out of date first, within the time budget.
+     * Every Part is written back to the links file, including failing Parts, so they are retried by a later refresh.
+     */
+    private void checkStalestLinks() {
+        List<Part> allParts = readLinksFile();
+        List<Part> batch = refreshQueue.next(allParts, batchSize, System.currentTimeMillis());
+        infoLogger.log("Refreshing " + batch.size() + " of " + allParts.size() + " links");
+        refreshParts(batch, timeBudgetMillis);
+        if (writePartsToFile(new LinkedList<>(allParts))) {
+            catalogParts = allParts;
+        }
+    }
+
+    /**
+     * Crawls the passed-in Parts' links, updating each Part from its page, and records the result of each in the Refresh Queue.
+     * Collects all problem links and sends these to reporter
+     *
+     * @param parts        the parts to refresh
+     * @param budgetMillis the most time in milliseconds to spend starting links, or 0 for no limit
+     */
+    private void refreshParts(List<Part> parts, long budgetMillis) {
+        today = LocalDate.now().toString();
+        Set<Part> problemParts = ConcurrentHashMap.newKeySet();
+        Set<Part> reachedParts = ConcurrentHashMap.newKeySet();
+        AtomicInteger unchanged = new AtomicInteger();
+        AtomicInteger reparsed = new AtomicInteger();
+        lastCrawl = linkCrawlerService.crawl(parts, new LinkCrawlerService.PageHandler() {
+            @Override
+            public void onResponse(Part part, Connection.Response response) {
+                // Error pages are treated as unreachable links, and are kept in the links file marked as not up to date
+                if (response.statusCode() >= 400) {
+                    invalidPart(problemParts, part);
+                    return;
+                }
+                reachedParts.add(part);
+                if (response.statusCode() == 304) {
+                    unchanged.incrementAndGet();
+                    part.setIsUptoDate(true);
+                    part.setDateLastUpdated(today);
+                    recordPrice(part);
+                } else if (response.statusCode() == 200) {
+                    reparsed.incrementAndGet();
+                    setPartAttributesFromLink(problemParts, part, response);
+                    setValidators(part, response);
+                    if (part.getIsUpToDate()) {
+                        recordPrice(part);
+                    }
+                } else {
+                    invalidPart(problemParts, part);
+                }
+            }
+
+            @Override
+            public void onFailure(Part part, IOException e) {
+                invalidPart(problemParts, part);
+            }
+        }, budgetMillis);
+        long now = System.currentTimeMillis();
+        for (Part part : parts) {
+            if (problemParts.contains(part)) {
+                refreshQueue.failed(part, now);
+            } else if (reachedParts.contains(part)) {
+                refreshQueue.succeeded(part, now);
+            }
+        }
+        lastPartCount = parts.size();
+        lastProblemCount = problemParts.size();
+        lastUnchangedCount = unchanged.get();
+        lastReparsedCount = reparsed.get();
+        errorLogger.log("**** Please check the following links ****");
+        errorLogger.log("You have " + problemParts.size() + " issues with links ref doc");
+        problemParts.forEach(part -> errorLogger.log("Internal ref: " + part.getInternalReference() + "\nLink: " + part.getLink()));
+        errorLogger.log("**** Checking links complete ****");
+        infoLogger.log("Finished checking links!");
+    }
+
+    /**
+     * Writes unique list of Parts back to file, to allow information to be retrieved directly from file later.
+     * The Catalog Store Service replaces the file whole, and keeps the list as a new generation that can be rolled back to.
+     *
+     * Nothing is written when the links were fetched from a replay server.
+     *
+     * @param updatedParts unique list of Parts to be written back to File.
+     * @return true if the file was written
+     */
+    private boolean writePartsToFile(LinkedList<Part> updatedParts) {
+        if (linkCrawlerService.isReplaying()) {
+            warnLogger.log("Links were fetched from a replay server, not writing Bike Parts to file");
+            return false;
+        }
+        infoLogger.log("Writing updated Bike Parts to file");
+        try {
+            catalogStoreService.write(updatedParts);
+            return true;
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: writePartsBackFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            return false;
+        }
+    }
+
+    private List<Part> readLinksFile() {
+        infoLogger.log("Reading all Links from File");
+        return catalogStoreService.read();
+    }
+
+    /**
+     * Sets bike parts price and name on the part that is passed-in.
+     * The retailer's extractor is found from the part's link, and reads the name and price from the page already fetched by the crawler.
+     * The page is read from the same response the status code was read from, so each link is only downloaded once.
+     *
+     * @param part     the part that is to updated
+     * @param response the response fetched from the part's link
+     */
+    private void setPartAttributesFromLink(Set<Part> problemParts, Part part, Connection.Response response) {
+        Optional<RetailerExtractor> extractor = retailerExtractorService.findExtractor(part.getLink());
+        if (extractor.isEmpty()) {
+            errorLogger.log("Trying to use unknown website");
+            invalidPart(problemParts, part);
+            return;
+        }
+        try {
+            Optional<ScrapedPart> scraped = retailerExtractorService.extract(extractor.get(), response.body(), part.getLink());
+            if (scraped.isEmpty()) {
+                invalidPart(problemParts, part);
+                return;
+            }
+            warnLogger.log("Found: " + scraped.get().getName());
+            warnLogger.log("For: " + scraped.get().getPrice());
+            warnLogger.log("From: " + part.getLink());
+            part.setName(scraped.get().getName());
+            part.setMoney(scraped.get().getMoney());
+            part.setIsUptoDate(true);
+            part.setDateLastUpdated(today);
+        } catch (RuntimeException e) {
+            invalidPart(problemParts, part);
+            errorLogger.log("An Exception occurred from: getPartFromLink!!See error message: " + e + "!!For bike Component: " + part.getComponent());
+        }
+    }
+
+    /**
+     * Stores the ETag and Last-Modified date of the page the Part's price was read from, to send with the next refresh.
+     * When the price could not be read, they are cleared so the page is downloaded in full next time.
+     *
+     * @param part     the part
+     * @param response the response the price was read from
+     */
+    private void setValidators(Part part, Connection.Response response) {
+        part.setEtag(part.getIsUpToDate() ? response.header("ETag") : null);
+        part.setLastModified(part.getIsUpToDate() ? response.header("Last-Modified") : null);
+    }
+
+    private void recordPrice(Part part) {
+        if (linkCrawlerService.isReplaying()) {
+            return;
+        }
+        if (part.getMoney() == null) {
+            warnLogger.log("No price to add to history, For: " + part.getInternalReference());
+            return;
+        }
+        priceHistoryService.record(part.getInternalReference(), System.currentTimeMillis(), part.getMoney().getMinorUnits());
+    }
+
+    private void invalidPart(Set<Part> problemParts, Part part) {
+        problemParts.add(part);
+        part.setIsUptoDate(false);
+    }
+}
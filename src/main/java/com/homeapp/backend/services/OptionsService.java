@@ -26,8 +26,8 @@ public class OptionsService {
 
     private static OptionsService instance;
     private Options options;
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
 
     /**
      * Instantiates a new Options Service.
@@ -0,0 +1,140 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Parts Catalog Service.
+ * Holds a single, read-only copy of every Part in the links file, indexed by internal reference and by component.
+ * All Part lookups are served from memory; the links file is only re-read when it has changed on disk.
+ * The links file is read through the Catalog Store Service, which only ever replaces it whole, so a reload never sees a partly written file.
+ */
+@Service
+public class PartsCatalogService {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final CatalogStoreService catalogStoreService;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    /**
+     * Instantiates a new Parts Catalog Service and loads the links file into memory.
+     *
+     * @param catalogStoreService the catalog store service
+     */
+    @Autowired
+    public PartsCatalogService(CatalogStoreService catalogStoreService) {
+        this.catalogStoreService = catalogStoreService;
+        reload();
+    }
+
+    /**
+     * Finds a copy of the Part with the passed-in internal reference.
+     * A copy is returned so callers can update the Part for a single quote without changing the catalog.
+     *
+     * @param internalReference the internal reference
+     * @return the part, if it is in the catalog
+     */
+    public Optional<Part> findPart(String internalReference) {
+        Part part = catalog.partsByRef.get(internalReference);
+        return part == null ? Optional.empty() : Optional.of(new Part(part));
+    }
+
+    /**
+     * Finds copies of all Parts for the passed-in component.
+     *
+     * @param component the component
+     * @return the list of parts, empty if none are found
+     */
+    public List<Part> findPartsForComponent(String component) {
+        return catalog.partsByComponent.getOrDefault(component, List.of()).stream().map(Part::new).toList();
+    }
+
+    /**
+     * Gets copies of all Parts in the catalog, in links file order.
+     *
+     * @return the list of parts
+     */
+    public List<Part> getAllParts() {
+        return catalog.partsByRef.values().stream().map(Part::new).toList();
+    }
+
+    /**
+     * Gets the catalog version, which goes up by one each time the links file is reloaded.
+     * Anything built from catalog prices can compare versions to know when it is out of date.
+     *
+     * @return the catalog version
+     */
+    public long getVersion() {
+        return catalog.version;
+    }
+
+    /**
+     * Reloads the catalog if the links file has been changed since it was last read.
+     * Only checks the file's modified time and length, so is cheap enough to run once per quote.
+     */
+    public void reloadIfChanged() {
+        File file = catalogStoreService.getLinksFile().toFile();
+        Catalog current = catalog;
+        if (file.lastModified() != current.lastModified || file.length() != current.length) {
+            infoLogger.log("Links file has changed on disk, reloading Parts Catalog");
+            reload();
+        }
+    }
+
+    /**
+     * Reads the links file and swaps the new catalog in, in a single step.
+     * Readers see either the old or the new catalog, never a partly built one.
+     * If neither the file nor any kept generation of it can be read the current catalog is kept.
+     */
+    public synchronized void reload() {
+        infoLogger.log("Loading Parts Catalog from links file");
+        File file = catalogStoreService.getLinksFile().toFile();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        List<Part> parts = catalogStoreService.read();
+        if (parts.isEmpty() && !catalog.partsByRef.isEmpty()) {
+            errorLogger.log("No Parts could be read from method: reload!!Keeping the current Parts Catalog!!From: " + getClass());
+            return;
+        }
+        catalog = new Catalog(parts, lastModified, length, version.incrementAndGet());
+        infoLogger.log("Parts Catalog loaded, number of parts: " + catalog.partsByRef.size());
+    }
+
+    /**
+     * Immutable snapshot of the links file.
+     */
+    private static final class Catalog {
+        private static final Catalog EMPTY = new Catalog(List.of(), 0L, 0L, 0L);
+        private final Map<String, Part> partsByRef;
+        private final Map<String, List<Part>> partsByComponent;
+        private final long lastModified;
+        private final long length;
+        private final long version;
+
+        private Catalog(List<Part> parts, long lastModified, long length, long version) {
+            Map<String, Part> byRef = new LinkedHashMap<>();
+            Map<String, List<Part>> byComponent = new HashMap<>();
+            for (Part p : parts) {
+                byRef.putIfAbsent(p.getInternalReference(), p);
+                if (p.getComponent() != null) {
+                    byComponent.computeIfAbsent(p.getComponent(), c -> new ArrayList<>()).add(p);
+                }
+            }
+            byComponent.replaceAll((c, list) -> List.copyOf(list));
+            this.partsByRef = Collections.unmodifiableMap(byRef);
+            this.partsByComponent = Map.copyOf(byComponent);
+            this.lastModified = lastModified;
+            this.length = length;
+            this.version = version;
+        }
+    }
+}
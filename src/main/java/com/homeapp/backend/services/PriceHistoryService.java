@@ -0,0 +1,386 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.PricePoint;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * The Price History Service.
+ * Keeps every price seen for each Part, so prices can be charted over time without checking the retailers again.
+ * Each Part has its own series of segment files, that are only ever appended to, in a directory named by its internal reference.
+ * Letters, digits, '_' and '-' are kept as they are in the directory name, and every other character is written as '%' and the hex of its UTF-8 bytes,
+ * so every internal reference has a directory of its own, and the internal reference can be read back from the directory name.
+ * A segment holds a fixed number of 16 byte records, the time in epoch milliseconds and the price in pence, and is memory-mapped,
+ * so appending a price and reading a range both work straight on the file without copying it into memory.
+ * Records in a series are kept in time order, so a range is found by a binary search.
+ * A segment file that is too short or is not a price history segment is set aside with a .bad suffix when it is opened,
+ * so the rest of its series, and every other series, is still served.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final int MAGIC = 0x50485331;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 16;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String SET_ASIDE_SUFFIX = ".bad";
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final Map<String, Series> seriesByReference = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Price History Service, opening any series already in the directory.
+     *
+     * @param directory         the directory the segment files are kept in
+     * @param recordsPerSegment the number of prices each segment file holds
+     */
+    @Autowired
+    public PriceHistoryService(@Value("${prices.history.directory:src/main/price-history/}") String directory,
+                               @Value("${prices.history.records-per-segment:4096}") int recordsPerSegment) {
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = Math.max(1, recordsPerSegment);
+        try {
+            Files.createDirectories(this.directory);
+            try (Stream<Path> dirs = Files.list(this.directory)) {
+                for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                    try {
+                        seriesByReference.put(fromFileName(dir.getFileName().toString()), openSeries(dir));
+                    } catch (IOException e) {
+                        errorLogger.log("An IOException occurred from method: PriceHistoryService, not opening series: " + dir + "!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: PriceHistoryService!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            throw new UncheckedIOException(e);
+        }
+        infoLogger.log("Opened price history for " + seriesByReference.size() + " parts");
+    }
+
+    /**
+     * Records a price seen for the passed-in Part.
+     * A time earlier than the last recorded for the Part is moved up to the last, so the series stays in time order.
+     *
+     * @param internalReference the part's internal reference
+     * @param epochMillis       the time the price was seen, in epoch milliseconds
+     * @param pence             the price, in pence
+     */
+    public void record(String internalReference, long epochMillis, long pence) {
+        try {
+            Series series = seriesByReference.computeIfAbsent(internalReference, r -> {
+                try {
+                    return openSeries(directory.resolve(toFileName(r)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            series.append(epochMillis, pence);
+        } catch (IOException | UncheckedIOException e) {
+            errorLogger.log("An IOException occurred from method: record!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+    }
+
+    /**
+     * Gets the prices seen for the passed-in Part between two times.
+     *
+     * @param internalReference the part's internal reference
+     * @param fromMillis        the earliest time, in epoch milliseconds
+     * @param toMillis          the latest time, in epoch milliseconds
+     * @return the prices in time order, empty if the Part has no history
+     */
+    public List<PricePoint> getHistory(String internalReference, long fromMillis, long toMillis) {
+        List<PricePoint> points = new ArrayList<>();
+        Series series = seriesByReference.get(internalReference);
+        if (series != null) {
+            series.forEachBetween(fromMillis, toMillis, (millis, pence) -> points.add(new PricePoint(millis, pence)));
+        }
+        return points;
+    }
+
+    /**
+     * Gets the lowest, highest and average price seen for the passed-in Part between two times, without building the list of prices.
+     *
+     * @param internalReference the part's internal reference
+     * @param fromMillis        the earliest time, in epoch milliseconds
+     * @param toMillis          the latest time, in epoch milliseconds
+     * @return the count, minPence, maxPence, avgPence, firstMillis and lastMillis, or empty if no prices were seen in the window
+     */
+    public Optional<Map<String, Long>> getSummary(String internalReference, long fromMillis, long toMillis) {
+        Series series = seriesByReference.get(internalReference);
+        if (series == null) {
+            return Optional.empty();
+        }
+        long[] summary = {0, Long.MAX_VALUE, Long.MIN_VALUE, 0, 0, 0};
+        series.forEachBetween(fromMillis, toMillis, (millis, pence) -> {
+            if (summary[0]++ == 0) {
+                summary[4] = millis;
+            }
+            summary[1] = Math.min(summary[1], pence);
+            summary[2] = Math.max(summary[2], pence);
+            summary[3] += pence;
+            summary[5] = millis;
+        });
+        if (summary[0] == 0) {
+            return Optional.empty();
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("count", summary[0]);
+        stats.put("minPence", summary[1]);
+        stats.put("maxPence", summary[2]);
+        stats.put("avgPence", Math.round((double) summary[3] / summary[0]));
+        stats.put("firstMillis", summary[4]);
+        stats.put("lastMillis", summary[5]);
+        return Optional.of(stats);
+    }
+
+    /**
+     * Has the passed-in Part had any price recorded.
+     *
+     * @param internalReference the part's internal reference
+     * @return the boolean
+     */
+    public boolean hasHistory(String internalReference) {
+        return seriesByReference.containsKey(internalReference);
+    }
+
+    /**
+     * Gets the internal references of every Part with a price history.
+     *
+     * @return the internal references
+     */
+    public Set<String> getReferences() {
+        return new TreeSet<>(seriesByReference.keySet());
+    }
+
+    /**
+     * Writes any prices still held in memory out to the segment files, and closes them, when the application shuts down.
+     */
+    @PreDestroy
+    public void close() {
+        seriesByReference.values().forEach(Series::close);
+    }
+
+    private Series openSeries(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        Series series = new Series(dir, files.isEmpty() ? 0 : segmentNumber(files.get(files.size() - 1), files.size()) + 1);
+        for (Path file : files) {
+            try {
+                series.segments.add(openSegment(file));
+            } catch (IOException e) {
+                setAside(file, e);
+            }
+        }
+        return series;
+    }
+
+    /**
+     * Renames a segment file that could not be opened, so it is kept to look at but not opened again.
+     */
+    private void setAside(Path file, IOException cause) {
+        errorLogger.log("An IOException occurred from method: openSeries, setting aside segment: " + file + "!!See error message: " + cause.getMessage() + "!!From: " + getClass());
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + SET_ASIDE_SUFFIX), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            errorLogger.log("An IOException occurred from method: setAside!!See error message: " + e.getMessage() + "!!From: " + getClass());
+        }
+    }
+
+    private static int segmentNumber(Path file, int fallback) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private Segment openSegment(Path file) throws IOException {
+        boolean isNew = !Files.exists(file);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long bytes = isNew ? HEADER_BYTES + (long) recordsPerSegment * RECORD_BYTES : channel.size();
+        if (bytes < HEADER_BYTES) {
+            channel.close();
+            throw new IOException("Price history segment is too short, " + bytes + " bytes: " + file);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        int capacity = (int) ((bytes - HEADER_BYTES) / RECORD_BYTES);
+        if (isNew) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, RECORD_BYTES);
+            buffer.putLong(8, 0);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != RECORD_BYTES) {
+            channel.close();
+            throw new IOException("Not a price history segment: " + file);
+        }
+        int count = (int) Math.min(buffer.getLong(8), capacity);
+        return new Segment(channel, buffer, capacity, count);
+    }
+
+    private static String toFileName(String internalReference) {
+        StringBuilder name = new StringBuilder(internalReference.length());
+        for (byte b : internalReference.getBytes(StandardCharsets.UTF_8)) {
+            if ((b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9') || b == '_' || b == '-') {
+                name.append((char) b);
+            } else {
+                name.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Reads the internal reference back from a series directory name.
+     * A name that is not a whole escape is kept as it is, so a directory added by hand is still opened under its own name.
+     */
+    private static String fromFileName(String fileName) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(fileName.length());
+        for (int i = 0; i < fileName.length(); i++) {
+            char c = fileName.charAt(i);
+            if (c > 0x7F) {
+                return fileName;
+            } else if (c != '%') {
+                bytes.write(c);
+            } else if (i + 2 < fileName.length() && HexFormat.isHexDigit(fileName.charAt(i + 1)) && HexFormat.isHexDigit(fileName.charAt(i + 2))) {
+                bytes.write(HexFormat.fromHexDigits(fileName, i + 1, i + 3));
+                i += 2;
+            } else {
+                return fileName;
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface PriceVisitor {
+        void visit(long epochMillis, long pence);
+    }
+
+    private final class Series {
+        private final Path dir;
+        private final List<Segment> segments = new CopyOnWriteArrayList<>();
+        private int nextSegment;
+
+        private Series(Path dir, int nextSegment) {
+            this.dir = dir;
+            this.nextSegment = nextSegment;
+        }
+
+        private synchronized void append(long epochMillis, long pence) throws IOException {
+            Segment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.count > 0) {
+                epochMillis = Math.max(epochMillis, last.millisAt(last.count - 1));
+            }
+            if (last == null || last.count == last.capacity) {
+                // Numbered on from the last segment file, so a segment set aside is never written over
+                last = openSegment(dir.resolve(String.format("%08d", nextSegment) + SEGMENT_SUFFIX));
+                nextSegment++;
+                segments.add(last);
+            }
+            last.append(epochMillis, pence);
+        }
+
+        private void forEachBetween(long fromMillis, long toMillis, PriceVisitor visitor) {
+            for (Segment segment : segments) {
+                int count = segment.count;
+                if (count == 0 || segment.millisAt(count - 1) < fromMillis) {
+                    continue;
+                }
+                if (segment.millisAt(0) > toMillis) {
+                    return;
+                }
+                for (int i = segment.firstAtOrAfter(fromMillis, count); i < count; i++) {
+                    long millis = segment.millisAt(i);
+                    if (millis > toMillis) {
+                        return;
+                    }
+                    visitor.visit(millis, segment.penceAt(i));
+                }
+            }
+        }
+
+        private void close() {
+            segments.forEach(Segment::close);
+        }
+    }
+
+    private final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private volatile int count;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, int capacity, int count) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.count = count;
+        }
+
+        private void append(long epochMillis, long pence) {
+            int offset = HEADER_BYTES + count * RECORD_BYTES;
+            buffer.putLong(offset, epochMillis);
+            buffer.putLong(offset + 8, pence);
+            // The count is written after the record, so a reader never sees a record that is only half written
+            buffer.putLong(8, count + 1L);
+            count++;
+        }
+
+        private long millisAt(int index) {
+            return buffer.getLong(HEADER_BYTES + index * RECORD_BYTES);
+        }
+
+        private long penceAt(int index) {
+            return buffer.getLong(HEADER_BYTES + index * RECORD_BYTES + 8);
+        }
+
+        private int firstAtOrAfter(long fromMillis, int count) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (millisAt(mid) < fromMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void close() {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                warnLogger.log("Could not close price history segment!!See error message: " + e.getMessage());
+            }
+        }
+    }
+}
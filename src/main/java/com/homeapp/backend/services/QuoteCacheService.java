@@ -0,0 +1,131 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.FullBike;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The Quote Cache Service.
+ * Keeps recently quoted Bike Parts, keyed by the configuration signature of the bike they were quoted for.
+ * The least recently used quote is evicted once the cache is full, and the whole cache is cleared when the Parts Catalog is reloaded.
+ */
+@Service
+public class QuoteCacheService {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final PartsCatalogService partsCatalogService;
+    private final Map<String, BikeParts> quotes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long catalogVersion;
+
+    /**
+     * Instantiates a new Quote Cache Service.
+     *
+     * @param partsCatalogService the parts catalog service
+     * @param maxSize             the most quotes to keep
+     */
+    @Autowired
+    public QuoteCacheService(PartsCatalogService partsCatalogService, @Value("${quotes.cache.max-size:512}") int maxSize) {
+        this.partsCatalogService = partsCatalogService;
+        this.catalogVersion = partsCatalogService.getVersion();
+        this.quotes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BikeParts> eldest) {
+                if (size() > maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Builds the configuration signature for the passed-in bike.
+     * Only the fields that change which parts are chosen are included, so two bikes with different names but the same build share a signature.
+     *
+     * @param bike the bike
+     * @return the signature
+     */
+    public static String signatureOf(FullBike bike) {
+        return bike.getFrame().getFrameStyle() + "|" + bike.getFrame().isDiscBrakeCompatible()
+                + "|" + bike.getHandleBarType() + "|" + bike.getBrakeType()
+                + "|" + bike.getNumberOfFrontGears() + "|" + bike.getNumberOfRearGears()
+                + "|" + bike.getShifterStyle() + "|" + bike.getWheelPreference();
+    }
+
+    /**
+     * Gets the quote for the passed-in bike from the cache, building and caching it if it isn't there.
+     * A copy of the cached quote is returned, so callers can change it freely.
+     * Quotes with errors, such as a step timing out, are not cached, so the next request tries again.
+     *
+     * @param bike      the bike
+     * @param quoteMaker builds the quote on a miss
+     * @return the bike parts
+     */
+    public BikeParts getQuote(FullBike bike, Supplier<BikeParts> quoteMaker) {
+        String signature = signatureOf(bike);
+        long version = partsCatalogService.getVersion();
+        BikeParts cached;
+        synchronized (quotes) {
+            if (version != catalogVersion) {
+                warnLogger.log("Parts Catalog has changed, clearing " + quotes.size() + " cached quotes");
+                quotes.clear();
+                catalogVersion = version;
+            }
+            cached = quotes.get(signature);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            infoLogger.log("Quote cache hit for: " + signature);
+            return new BikeParts(cached);
+        }
+        misses.incrementAndGet();
+        infoLogger.log("Quote cache miss for: " + signature);
+        BikeParts quote = quoteMaker.get();
+        synchronized (quotes) {
+            if (version == catalogVersion && quote.getErrorMessages().isEmpty()) {
+                quotes.put(signature, new BikeParts(quote));
+            }
+        }
+        return quote;
+    }
+
+    /**
+     * Clears every cached quote.
+     */
+    public void clear() {
+        synchronized (quotes) {
+            quotes.clear();
+        }
+    }
+
+    /**
+     * Gets the cache counters, for checking how well the cache is working.
+     *
+     * @return the counters, by name
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        synchronized (quotes) {
+            stats.put("size", (long) quotes.size());
+        }
+        stats.put("catalogVersion", partsCatalogService.getVersion());
+        return stats;
+    }
+}
@@ -0,0 +1,359 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.*;
+import com.homeapp.backend.models.bike.Enums.BrakeType;
+import com.homeapp.backend.models.bike.Enums.FrameStyle;
+import com.homeapp.backend.models.bike.Enums.HandleBarType;
+import com.homeapp.backend.models.bike.Error;
+import com.homeapp.backend.models.logger.ErrorLogger;
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.homeapp.backend.models.bike.Enums.FrameStyle.SINGLE_SPEED;
+import static com.homeapp.backend.models.bike.Enums.GroupsetBrand.SHIMANO;
+import static com.homeapp.backend.models.bike.Enums.ShifterStyle.NONE;
+
+/**
+ * The Quote Table Service.
+ * Holds a read-only table of the parts, price and images for every bike that can be designed on the FE, keyed by configuration signature.
+ * The table is built by walking the same rules the Options Service gives to the FE, so any bike that can be designed is a single lookup.
+ * Building at startup is optional, set by the quotes.table.enabled property. The table is rebuilt when the Parts Catalog changes.
+ * The rebuild runs in the background, and the table built before keeps being served until the new one is ready.
+ */
+@Service
+public class QuoteTableService {
+
+    private static final int OBJECT_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final OptionsService optionsService;
+    private final FullBikeService fullBikeService;
+    private final BikePartsService bikePartsService;
+    private final ImageService imageService;
+    private final PartsCatalogService partsCatalogService;
+    private final boolean enabled;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final ExecutorService rebuildThread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "quote-table-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Table table;
+
+    /**
+     * Instantiates a new Quote Table Service.
+     * Builds the table straight away when the table is enabled.
+     *
+     * @param optionsService      the options service
+     * @param fullBikeService     the full bike service
+     * @param bikePartsService    the bike parts service
+     * @param imageService        the image service
+     * @param partsCatalogService the parts catalog service
+     * @param enabled             whether to build the table at startup
+     */
+    @Autowired
+    public QuoteTableService(OptionsService optionsService, FullBikeService fullBikeService, BikePartsService bikePartsService, ImageService imageService, PartsCatalogService partsCatalogService, @Value("${quotes.table.enabled:false}") boolean enabled) {
+        this.optionsService = optionsService;
+        this.fullBikeService = fullBikeService;
+        this.bikePartsService = bikePartsService;
+        this.imageService = imageService;
+        this.partsCatalogService = partsCatalogService;
+        this.enabled = enabled;
+        if (enabled) {
+            build();
+        }
+    }
+
+    /**
+     * Finds the quote for the passed-in bike in the table.
+     * A copy of the quote is returned, so callers can change it freely.
+     *
+     * @param bike the bike
+     * @return the bike parts, empty if the table hasn't been built or doesn't hold the bike
+     */
+    public Optional<BikeParts> findQuote(FullBike bike) {
+        return findRow(bike).map(QuoteRow::toBikeParts);
+    }
+
+    /**
+     * Finds the images for the passed-in bike in the table.
+     *
+     * @param bike the bike
+     * @return the images, empty if the table hasn't been built or doesn't hold the bike
+     */
+    public Optional<List<Image>> findImages(FullBike bike) {
+        return findRow(bike).map(r -> r.images);
+    }
+
+    private Optional<QuoteRow> findRow(FullBike bike) {
+        Table t = table;
+        if (t == null) {
+            return Optional.empty();
+        }
+        partsCatalogService.reloadIfChanged();
+        if (t.catalogVersion != partsCatalogService.getVersion()) {
+            rebuildInBackground();
+        }
+        QuoteRow row = t.rows.get(QuoteCacheService.signatureOf(bike));
+        if (row == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(row);
+    }
+
+    /**
+     * Builds the table, quoting every bike that can be designed from the current Parts Catalog.
+     * Bikes quoted with errors are left out, so they are quoted again on request.
+     * Does nothing if the table is already up-to-date with the Parts Catalog.
+     *
+     * @return the table
+     */
+    public synchronized Table build() {
+        long version = partsCatalogService.getVersion();
+        if (table != null && table.catalogVersion == version) {
+            return table;
+        }
+        infoLogger.log("Building Quote Table for Parts Catalog version: " + version);
+        long start = System.nanoTime();
+        Map<String, QuoteRow> rows = new HashMap<>();
+        Map<String, Part> sharedParts = new HashMap<>();
+        Map<String, Image> sharedImages = new HashMap<>();
+        for (FullBike bike : designableBikes()) {
+            String signature = QuoteCacheService.signatureOf(bike);
+            if (!rows.containsKey(signature)) {
+                BikeParts quote = bikePartsService.quoteBikeWithoutCache(bike);
+                if (!quote.getErrorMessages().isEmpty()) {
+                    warnLogger.log("Leaving " + signature + " out of the Quote Table, as it was quoted with errors: " + quote.getErrorMessages());
+                    continue;
+                }
+                List<Image> images = imageService.getImages(bike);
+                rows.put(signature, new QuoteRow(quote, images, sharedParts, sharedImages));
+            }
+        }
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        table = new Table(rows, version, buildMillis, estimateBytes(rows, sharedParts.values(), sharedImages.values()));
+        warnLogger.log("Built Quote Table of " + rows.size() + " configurations in " + buildMillis + "ms, using around " + table.estimatedBytes / 1024 + "KB");
+        return table;
+    }
+
+    /**
+     * Starts a rebuild of the table on the rebuild thread, unless one is already running.
+     */
+    private void rebuildInBackground() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        infoLogger.log("Parts Catalog has changed, rebuilding Quote Table in the background");
+        try {
+            rebuildThread.execute(() -> {
+                try {
+                    build();
+                } catch (RuntimeException e) {
+                    errorLogger.log("An Exception occurred from method: rebuildInBackground!!See error message: " + e.getMessage() + "!!From: " + getClass());
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * Stops the rebuild thread when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuildThread.shutdownNow();
+    }
+
+    private List<FullBike> designableBikes() {
+        List<FullBike> bikes = new ArrayList<>();
+        Options frameOptions = optionsService.startNewBike();
+        for (String frameStyle : frameOptions.getFrameStyles()) {
+            FullBike frameOnly = newDesignBike(FrameStyle.fromName(frameStyle));
+            Options o = optionsFor(frameOnly);
+            for (String brakeType : o.getBrakeStyles()) {
+                for (String barType : o.getBarStyles()) {
+                    FullBike b = newDesignBike(FrameStyle.fromName(frameStyle));
+                    b.setBrakeType(BrakeType.fromName(brakeType));
+                    b.setHandleBarType(HandleBarType.fromName(barType));
+                    Options gearOptions = optionsFor(b);
+                    for (Long frontGears : gearsOrSingle(b, gearOptions.getNumberOfFrontGears())) {
+                        for (Long rearGears : gearsOrSingle(b, gearOptions.getNumberOfRearGears())) {
+                            for (String wheelPreference : gearOptions.getWheelPreference()) {
+                                FullBike designed = newDesignBike(b.getFrame().getFrameStyle());
+                                designed.setBrakeType(b.getBrakeType());
+                                designed.setHandleBarType(b.getHandleBarType());
+                                designed.setNumberOfFrontGears(frontGears);
+                                designed.setNumberOfRearGears(rearGears);
+                                designed.setWheelPreference(wheelPreference);
+                                // Applied once, the same as updateBike applies them to the bike the FE saves
+                                bikes.add(fullBikeService.applyDesignRules(designed));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return bikes;
+    }
+
+    private Options optionsFor(FullBike bike) {
+        Options o = new Options();
+        o.setShowFrameStyles(false);
+        CombinedData cd = new CombinedData();
+        cd.setBike(bike);
+        cd.setOptions(o);
+        return optionsService.updateOptions(cd);
+    }
+
+    private List<Long> gearsOrSingle(FullBike bike, List<Long> gears) {
+        if (gears.isEmpty() && bike.getFrame().getFrameStyle().equals(SINGLE_SPEED)) {
+            return List.of(1L);
+        }
+        return gears;
+    }
+
+    private FullBike newDesignBike(FrameStyle frameStyle) {
+        Frame frame = new Frame();
+        frame.setFrameStyle(frameStyle);
+        FullBike b = new FullBike();
+        b.setBikeName("Quote Table Bike");
+        b.setFrame(frame);
+        b.setBrakeType(BrakeType.NO_SELECTION);
+        b.setShifterStyle(NONE);
+        b.setGroupsetBrand(SHIMANO);
+        b.setHandleBarType(HandleBarType.NOT_SELECTED);
+        b.setWheelPreference("");
+        return b;
+    }
+
+    private long estimateBytes(Map<String, QuoteRow> rows, Collection<Part> parts, Collection<Image> images) {
+        long bytes = 0;
+        for (Map.Entry<String, QuoteRow> e : rows.entrySet()) {
+            QuoteRow r = e.getValue();
+            bytes += OBJECT_BYTES * 2 + stringBytes(e.getKey());
+            bytes += OBJECT_BYTES + 5 * REFERENCE_BYTES + moneyBytes(r.total) + stringBytes(r.totalPriceAsString);
+            bytes += OBJECT_BYTES + (long) REFERENCE_BYTES * (r.parts.size() + r.images.size() + r.errors.size()) + OBJECT_BYTES * 3;
+        }
+        for (Part p : parts) {
+            bytes += OBJECT_BYTES + 7 * REFERENCE_BYTES + stringBytes(p.getInternalReference()) + stringBytes(p.getComponent()) + stringBytes(p.getName()) + moneyBytes(p.getMoney()) + stringBytes(p.getLink()) + stringBytes(p.getDateLastUpdated());
+        }
+        for (Image i : images) {
+            bytes += OBJECT_BYTES * 2 + 3 * REFERENCE_BYTES + stringBytes(i.getComponent()) + stringBytes(i.getSrc()) + stringBytes(i.getAltText());
+        }
+        return bytes;
+    }
+
+    private static long moneyBytes(Money m) {
+        return m == null ? 0 : OBJECT_BYTES + 8 + REFERENCE_BYTES;
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 2 * OBJECT_BYTES + 8 + s.length();
+    }
+
+    /**
+     * Checks whether the table is built at startup.
+     *
+     * @return true if the table is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets the table counters, for checking the size and cost of the table and how often it is used.
+     *
+     * @return the counters, by name
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        Table t = table;
+        stats.put("enabled", enabled ? 1L : 0L);
+        stats.put("configurations", t == null ? 0L : t.rows.size());
+        stats.put("buildMillis", t == null ? 0L : t.buildMillis);
+        stats.put("estimatedBytes", t == null ? 0L : t.estimatedBytes);
+        stats.put("catalogVersion", t == null ? -1L : t.catalogVersion);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    /**
+     * A built Quote Table, never changed once built.
+     */
+    public static final class Table {
+        private final Map<String, QuoteRow> rows;
+        private final long catalogVersion;
+        private final long buildMillis;
+        private final long estimatedBytes;
+
+        private Table(Map<String, QuoteRow> rows, long catalogVersion, long buildMillis, long estimatedBytes) {
+            this.rows = Collections.unmodifiableMap(rows);
+            this.catalogVersion = catalogVersion;
+            this.buildMillis = buildMillis;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        /**
+         * Gets the number of configurations in the table.
+         *
+         * @return the size
+         */
+        public int size() {
+            return rows.size();
+        }
+    }
+
+    /**
+     * A single configuration in the table.
+     * Parts and Images that are the same across configurations are shared, rather than held once per row.
+     */
+    private static final class QuoteRow {
+        private final List<Part> parts;
+        private final Money total;
+        private final String totalPriceAsString;
+        private final List<Error> errors;
+        private final List<Image> images;
+
+        private QuoteRow(BikeParts quote, List<Image> images, Map<String, Part> sharedParts, Map<String, Image> sharedImages) {
+            List<Part> partList = new ArrayList<>(quote.getListOfParts().size());
+            quote.getListOfParts().forEach(p -> partList.add(sharedParts.computeIfAbsent(p.getInternalReference() + "|" + p.getName() + "|" + (p.getMoney() == null ? "" : p.getMoney().getMinorUnits()), k -> p)));
+            List<Image> imageList = new ArrayList<>(images.size());
+            images.forEach(i -> imageList.add(sharedImages.computeIfAbsent(i.getPlace() + "|" + i.getSrc() + "|" + i.getAltText(), k -> i)));
+            this.parts = Collections.unmodifiableList(partList);
+            this.total = quote.getTotal();
+            this.totalPriceAsString = quote.getTotalPriceAsString();
+            this.errors = List.copyOf(quote.getErrorMessages());
+            this.images = Collections.unmodifiableList(imageList);
+        }
+
+        private BikeParts toBikeParts() {
+            BikeParts bikeParts = new BikeParts();
+            parts.forEach(p -> bikeParts.getListOfParts().add(new Part(p)));
+            bikeParts.setTotal(total);
+            bikeParts.setTotalPriceAsString(totalPriceAsString);
+            bikeParts.setErrorMessages(new ArrayList<>(errors));
+            return bikeParts;
+        }
+    }
+}
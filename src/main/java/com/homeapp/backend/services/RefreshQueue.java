@@ -0,0 +1,170 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.bike.Part;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The Refresh Queue.
+ * Remembers when each Part was last refreshed, and how often it has failed since, so a refresh can check only the Parts that need it most.
+ * Parts that failed last time come first, the most recent failure first, then the Parts that have gone longest without a refresh.
+ * A failing Part waits longer before each retry, doubling each time, so a link that is broken for good does not take up every refresh.
+ * A Part not seen before starts from its date last updated in the links file, and is treated as failing when it is not up to date.
+ */
+public final class RefreshQueue {
+
+    private static final int MAX_BACKOFF_DOUBLINGS = 6;
+    private final long retryBackoffMillis;
+    private final long freshWithinMillis;
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Refresh Queue.
+     *
+     * @param retryBackoffMillis the wait in milliseconds before a failed Part is retried, doubled for each failure after
+     * @param freshWithinMillis  how recently in milliseconds a Part must have been refreshed to count as fresh
+     */
+    public RefreshQueue(long retryBackoffMillis, long freshWithinMillis) {
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        this.freshWithinMillis = Math.max(0, freshWithinMillis);
+    }
+
+    /**
+     * Picks the Parts most in need of a refresh, in the order they should be refreshed.
+     * Failed Parts still waiting to be retried are left out.
+     *
+     * @param parts     every Part in the catalog
+     * @param size      the most Parts to pick
+     * @param nowMillis the time now, in epoch milliseconds
+     * @return the picked parts
+     */
+    public List<Part> next(List<Part> parts, int size, long nowMillis) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(1, parts.size()));
+        for (Part part : parts) {
+            Record record = recordFor(part);
+            if (record.isDue(nowMillis)) {
+                queue.add(new Candidate(part, record));
+            }
+        }
+        List<Part> batch = new ArrayList<>(Math.min(size, queue.size()));
+        while (batch.size() < size && !queue.isEmpty()) {
+            batch.add(queue.poll().part);
+        }
+        return batch;
+    }
+
+    /**
+     * Records that the passed-in Part was refreshed.
+     *
+     * @param part      the part
+     * @param nowMillis the time now, in epoch milliseconds
+     */
+    public void succeeded(Part part, long nowMillis) {
+        Record record = recordFor(part);
+        synchronized (record) {
+            record.lastSuccessMillis = nowMillis;
+            record.failures = 0;
+        }
+    }
+
+    /**
+     * Records that the passed-in Part could not be refreshed.
+     *
+     * @param part      the part
+     * @param nowMillis the time now, in epoch milliseconds
+     */
+    public void failed(Part part, long nowMillis) {
+        Record record = recordFor(part);
+        synchronized (record) {
+            record.lastFailureMillis = nowMillis;
+            record.failures++;
+        }
+    }
+
+    /**
+     * Gets how fresh the passed-in catalog is.
+     *
+     * @param parts     every Part in the catalog
+     * @param nowMillis the time now, in epoch milliseconds
+     * @return the parts, freshParts, failingParts, freshPercent, medianAgeMillis and oldestAgeMillis
+     */
+    public Map<String, Long> getFreshness(List<Part> parts, long nowMillis) {
+        long[] ages = new long[parts.size()];
+        long fresh = 0;
+        long failing = 0;
+        for (int i = 0; i < ages.length; i++) {
+            Record record = recordFor(parts.get(i));
+            ages[i] = Math.max(0, nowMillis - record.lastSuccessMillis);
+            if (record.failures > 0) {
+                failing++;
+            } else if (ages[i] <= freshWithinMillis) {
+                fresh++;
+            }
+        }
+        Arrays.sort(ages);
+        Map<String, Long> freshness = new LinkedHashMap<>();
+        freshness.put("parts", (long) ages.length);
+        freshness.put("freshParts", fresh);
+        freshness.put("failingParts", failing);
+        freshness.put("freshPercent", ages.length == 0 ? 100 : fresh * 100 / ages.length);
+        freshness.put("medianAgeMillis", ages.length == 0 ? 0 : ages[ages.length / 2]);
+        freshness.put("oldestAgeMillis", ages.length == 0 ? 0 : ages[ages.length - 1]);
+        return freshness;
+    }
+
+    private Record recordFor(Part part) {
+        return records.computeIfAbsent(part.getInternalReference(), ref -> new Record(lastUpdatedMillis(part), part.getIsUpToDate() ? 0 : 1));
+    }
+
+    private static long lastUpdatedMillis(Part part) {
+        try {
+            return LocalDate.parse(part.getDateLastUpdated()).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException | NullPointerException e) {
+            return 0;
+        }
+    }
+
+    private final class Record {
+        private volatile long lastSuccessMillis;
+        private volatile long lastFailureMillis;
+        private volatile int failures;
+
+        private Record(long lastSuccessMillis, int failures) {
+            this.lastSuccessMillis = lastSuccessMillis;
+            this.failures = failures;
+        }
+
+        private boolean isDue(long nowMillis) {
+            return failures == 0 || nowMillis - lastFailureMillis >= retryBackoffMillis << Math.min(failures - 1, MAX_BACKOFF_DOUBLINGS);
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        private final Part part;
+        private final boolean failing;
+        private final long lastFailureMillis;
+        private final long lastSuccessMillis;
+
+        private Candidate(Part part, Record record) {
+            this.part = part;
+            this.failing = record.failures > 0;
+            this.lastFailureMillis = record.lastFailureMillis;
+            this.lastSuccessMillis = record.lastSuccessMillis;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            if (failing != other.failing) {
+                return failing ? -1 : 1;
+            }
+            if (failing && lastFailureMillis != other.lastFailureMillis) {
+                return Long.compare(other.lastFailureMillis, lastFailureMillis);
+            }
+            return Long.compare(lastSuccessMillis, other.lastSuccessMillis);
+        }
+    }
+}
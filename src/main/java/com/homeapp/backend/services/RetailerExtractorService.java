@@ -0,0 +1,184 @@
+package com.homeapp.backend.services;
+
+import com.homeapp.backend.models.logger.InfoLogger;
+import com.homeapp.backend.models.logger.WarnLogger;
+import com.homeapp.backend.models.retailer.RetailerExtractor;
+import com.homeapp.backend.models.retailer.ScrapedPart;
+import com.homeapp.backend.models.retailer.SelectorExtractor;
+import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Retailer Extractor Service.
+ * Holds a Retailer Extractor for every retailer the Parts Catalog links to, looked up by the host of a Part's link.
+ * A host that is not registered is looked up again without its first label, so "uk.wiggle.com" finds the extractor for "wiggle.com".
+ * New retailers can be added by registering a new extractor for their hosts.
+ * Pages are read in the mode set by the links.extraction.mode property:
+ * STREAMING reads the name and price straight from the HTML when the extractor can, falling back to the full DOM when it cannot or finds nothing,
+ * DOM always builds the full DOM, and COMPARE does both, keeping the DOM result and counting any page where the two disagree.
+ * The time and memory used per page are counted for each way of reading, so the two can be compared.
+ */
+@Service
+public class RetailerExtractorService {
+
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final Map<String, RetailerExtractor> extractorsByHost = new ConcurrentHashMap<>();
+    private final String mode;
+    private final Cost streamed = new Cost();
+    private final Cost dom = new Cost();
+    private final LongAdder domFallbacks = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final com.sun.management.ThreadMXBean allocations;
+
+    /**
+     * Instantiates a new Retailer Extractor Service, with an extractor for every built-in retailer, reading pages in STREAMING mode.
+     */
+    public RetailerExtractorService() {
+        this("STREAMING");
+    }
+
+    /**
+     * Instantiates a new Retailer Extractor Service, with an extractor for every built-in retailer.
+     *
+     * @param mode STREAMING, DOM or COMPARE
+     */
+    @Autowired
+    public RetailerExtractorService(@Value("${links.extraction.mode:STREAMING}") String mode) {
+        this.mode = mode.toUpperCase(Locale.ROOT);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean t && t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+            this.allocations = t;
+        } else {
+            this.allocations = null;
+            warnLogger.log("Memory used per page cannot be measured on this JVM");
+        }
+        SelectorExtractor.builtIn().forEach(this::register);
+        infoLogger.log("Registered extractors for " + extractorsByHost.size() + " retailer hosts, reading pages in " + this.mode + " mode");
+    }
+
+    /**
+     * Registers the passed-in extractor for each of its hosts, replacing any extractor already registered for them.
+     *
+     * @param extractor the extractor
+     */
+    public void register(RetailerExtractor extractor) {
+        extractor.getHosts().forEach(host -> {
+            RetailerExtractor replaced = extractorsByHost.put(host.toLowerCase(Locale.ROOT), extractor);
+            if (replaced != null && replaced != extractor) {
+                warnLogger.log("Extractor for: " + host + " replaced, was: " + replaced.getRetailer() + ", now: " + extractor.getRetailer());
+            }
+        });
+    }
+
+    /**
+     * Finds the extractor for the retailer the passed-in link points to.
+     *
+     * @param link the link
+     * @return the extractor, or empty if the link is not to a known retailer
+     */
+    public Optional<RetailerExtractor> findExtractor(String link) {
+        String host = hostOf(link);
+        while (host != null) {
+            RetailerExtractor extractor = extractorsByHost.get(host);
+            if (extractor != null) {
+                return Optional.of(extractor);
+            }
+            int dot = host.indexOf('.');
+            host = dot < 0 ? null : host.substring(dot + 1);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reads the name and price from the passed-in page with the passed-in extractor, in the mode this service was made with.
+     *
+     * @param extractor the extractor
+     * @param html      the page's HTML
+     * @param baseUri   the page's link, used to resolve relative links in the DOM
+     * @return the scraped part, or empty if the name and price were not found
+     */
+    public Optional<ScrapedPart> extract(RetailerExtractor extractor, String html, String baseUri) {
+        Optional<ScrapedPart> fromStream = Optional.empty();
+        if (!mode.equals("DOM") && extractor.canStream()) {
+            long startNanos = System.nanoTime();
+            long startBytes = allocatedBytes();
+            fromStream = extractor.extractStreaming(html);
+            streamed.add(System.nanoTime() - startNanos, allocatedBytes() - startBytes);
+            if (fromStream.isPresent() && !mode.equals("COMPARE")) {
+                return fromStream;
+            }
+            if (fromStream.isEmpty()) {
+                domFallbacks.increment();
+            }
+        }
+        long startNanos = System.nanoTime();
+        long startBytes = allocatedBytes();
+        Optional<ScrapedPart> fromDom = extractor.extract(Jsoup.parse(html, baseUri));
+        dom.add(System.nanoTime() - startNanos, allocatedBytes() - startBytes);
+        if (fromStream.isPresent() && !fromStream.equals(fromDom)) {
+            mismatches.increment();
+            warnLogger.log("Streaming found: " + fromStream.get() + ", DOM found: " + fromDom.orElse(null) + ", From: " + baseUri);
+        }
+        return fromDom;
+    }
+
+    /**
+     * Gets the page counters, with the average time and memory used per page for each way of reading.
+     *
+     * @return the counters, by name
+     */
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        streamed.putStats("streamed", stats);
+        dom.putStats("dom", stats);
+        stats.put("domFallbacks", domFallbacks.sum());
+        stats.put("mismatches", mismatches.sum());
+        return stats;
+    }
+
+    private long allocatedBytes() {
+        return allocations == null ? 0 : allocations.getCurrentThreadAllocatedBytes();
+    }
+
+    private String hostOf(String link) {
+        try {
+            String host = link == null ? null : new URI(link).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static final class Cost {
+        private final LongAdder pages = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        private void add(long pageNanos, long pageBytes) {
+            pages.increment();
+            nanos.add(pageNanos);
+            bytes.add(pageBytes);
+        }
+
+        private void putStats(String name, Map<String, Long> stats) {
+            long count = pages.sum();
+            stats.put(name + ".pages", count);
+            stats.put(name + ".avgMicros", count == 0 ? 0 : nanos.sum() / count / 1000);
+            stats.put(name + ".avgAllocatedBytes", count == 0 ? 0 : bytes.sum() / count);
+        }
+    }
+}
@@ -17,8 +17,8 @@ public class SaveJokeService {
     private static final String JOKES_FILE_BACKUP = "src/main/resources/jokes_backup.json";
     private final ObjectMapper om = new ObjectMapper();
     private final ArrayList<DTOJoke> jokes;
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
 
 
     public SaveJokeService() {
@@ -1,21 +1,14 @@
 package com.homeapp.backend.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.homeapp.backend.models.bike.BikeParts;
+import com.homeapp.backend.models.bike.BikeContext;
 import com.homeapp.backend.models.bike.Error;
-import com.homeapp.backend.models.bike.FullBike;
 import com.homeapp.backend.models.bike.Part;
 import com.homeapp.backend.models.logger.ErrorLogger;
 import com.homeapp.backend.models.logger.InfoLogger;
 import com.homeapp.backend.models.logger.WarnLogger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.LinkedList;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -27,83 +20,82 @@ import static com.homeapp.backend.models.bike.Enums.ShifterStyle.STI;
  */
 @Service
 public class ShimanoGroupsetService {
-    private static FullBike bike;
-    private BikeParts bikeParts;
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
-    private final FullBikeService fullBikeService;
-    private static final String LINKS_FILE = "src/main/resources/links.json";
-    private final ObjectMapper om;
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final PartsCatalogService partsCatalogService;
+    private final FanOutExecutorService fanOutExecutorService;
 
     /**
      * Instantiates a new Shimano Groupset Service.
-     * Autowires in a FullBike Service to allow for access to instance Bike in all methods within this class.
+     * Autowires in the Parts Catalog Service so Parts are looked up in memory, rather than from the links file.
+     * Autowires in the Fan Out Executor Service to run each component method on.
+     * The bike being quoted is passed in to each method, so the service holds no state between quotes.
      *
-     * @param fullBikeService the full bike service
+     * @param partsCatalogService   the parts catalog service
+     * @param fanOutExecutorService the fan out executor service
      */
     @Autowired
-    public ShimanoGroupsetService(@Lazy FullBikeService fullBikeService, ObjectMapper om) {
-        this.fullBikeService = fullBikeService;
-        this.om = om;
+    public ShimanoGroupsetService(PartsCatalogService partsCatalogService, FanOutExecutorService fanOutExecutorService) {
+        this.partsCatalogService = partsCatalogService;
+        this.fanOutExecutorService = fanOutExecutorService;
     }
 
     /**
      * Gets shimano groupset.
-     * Sets the passed-in parts to the instance object, to be used throughout the class.
+     * Adds the groupset parts to the Bike Parts on the passed-in context.
      * Runs each separate component method in parallel to improve efficiency.
      * Each component method chooses the correct link based on design bike and then retrieves the individual part information from the web.
      *
-     * @param parts the parts
+     * @param bike the context of the bike being quoted
      */
-    public void getShimanoGroupset(BikeParts parts) {
+    public void getShimanoGroupset(BikeContext bike) {
         infoLogger.log("Getting Parts for Shimano Groupset.");
-        bikeParts = parts;
-        bike = fullBikeService.getBike();
         if (!bike.getShifterStyle().equals(STI)) {
-            getLeverShifters();
-            getBrakeLevers();
+            getLeverShifters(bike);
+            getBrakeLevers(bike);
         } else {
             if ((bike.getBrakeType().equals(MECHANICAL_DISC)) || (bike.getBrakeType().equals(RIM))) {
-                getMechanicalSTIShifters();
+                getMechanicalSTIShifters(bike);
             } else if (bike.getBrakeType().equals(HYDRAULIC_DISC)) {
-                getHydraulicSTIShifters();
+                getHydraulicSTIShifters(bike);
             }
         }
-        CompletableFuture<Void> brakeFuture = CompletableFuture.runAsync(this::getBrakeCalipers);
-        CompletableFuture<Void> chainringFuture = CompletableFuture.runAsync(this::getChainring);
-        CompletableFuture<Void> cassetteFuture = CompletableFuture.runAsync(this::getCassette);
-        CompletableFuture<Void> chainFuture = CompletableFuture.runAsync(this::getChain);
-        CompletableFuture<Void> rearDerailleurFuture = CompletableFuture.runAsync(this::getRearDerailleur);
-        CompletableFuture<Void> frontDerailleurFuture = CompletableFuture.runAsync(this::getFrontDerailleur);
-        CompletableFuture.allOf(brakeFuture, chainringFuture, cassetteFuture, chainFuture, rearDerailleurFuture, frontDerailleurFuture).join();
-        if (!bikeParts.getErrorMessages().isEmpty()) {
-            errorLogger.log("BikeParts has " + bikeParts.getErrorMessages().size() + " errors: " + bikeParts.getErrorMessages());
+        CompletableFuture<Void> brakeFuture = fanOutExecutorService.runAsync(() -> getBrakeCalipers(bike));
+        CompletableFuture<Void> chainringFuture = fanOutExecutorService.runAsync(() -> getChainring(bike));
+        CompletableFuture<Void> cassetteFuture = fanOutExecutorService.runAsync(() -> getCassette(bike));
+        CompletableFuture<Void> chainFuture = fanOutExecutorService.runAsync(() -> getChain(bike));
+        CompletableFuture<Void> rearDerailleurFuture = fanOutExecutorService.runAsync(() -> getRearDerailleur(bike));
+        CompletableFuture<Void> frontDerailleurFuture = fanOutExecutorService.runAsync(() -> getFrontDerailleur(bike));
+        FanOutExecutorService.StageOutcome outcome = fanOutExecutorService.await(FanOutExecutorService.GROUPSET_STAGE, brakeFuture, chainringFuture, cassetteFuture, chainFuture, rearDerailleurFuture, frontDerailleurFuture);
+        if (!outcome.isCompleted()) {
+            bike.addError(new Error("Groupset", "getShimanoGroupset", outcome.getMessage()));
+        }
+        if (!bike.getBikeParts().getErrorMessages().isEmpty()) {
+            errorLogger.log("BikeParts has " + bike.getBikeParts().getErrorMessages().size() + " errors: " + bike.getBikeParts().getErrorMessages());
         }
     }
 
-    private void getBrakeLevers() {
+    private void getBrakeLevers(BikeContext bike) {
         String ref = "";
         String component = "Brake-Levers";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         if (bike.getBrakeType().equals(HYDRAULIC_DISC)) {
             ref = "Left-HydraulicBrakeLever";
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
             ref = "Right-HydraulicBrakeLever";
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         } else {
             ref = "MechanicalBrakeLever";
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         }
     }
 
-    private void getBrakeCalipers() {
+    private void getBrakeCalipers(BikeContext bike) {
         String ref = "";
         String component = "Brake-Caliper";
         String method = "getBrakeCalipers";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch (bike.getBrakeType()) {
             case RIM -> ref = "RimBrakeCaliper";
             case MECHANICAL_DISC -> ref = "MechanicalBrakeCaliper";
@@ -112,21 +104,20 @@ public class ShimanoGroupsetService {
             }
         }
         if (!ref.isEmpty()) {
-            findPartFromInternalRef("Front-" + ref);
-            findPartFromInternalRef("Rear-" + ref);
+            findPartFromInternalRef("Front-" + ref, bike);
+            findPartFromInternalRef("Rear-" + ref, bike);
         } else {
             if (!bike.getBrakeType().equals(HYDRAULIC_DISC)) {
-                bikeParts.getErrorMessages().add(new Error(component, method, ref));
+                bike.addError(new Error(component, method, ref));
             }
         }
     }
 
-    private void getMechanicalSTIShifters() {
+    private void getMechanicalSTIShifters(BikeContext bike) {
         String ref = "";
         String component = "STI-Shifter";
         String method = "getMechanicalSTIShifters";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch ((int) bike.getNumberOfFrontGears()) {
             //Could not find active site for 1 by components
             //Below links are useless, have taken out option for Frontend selection
@@ -140,7 +131,7 @@ public class ShimanoGroupsetService {
                 } else {
                     ref = "MechanicalSTI_1_12";
                 }
-                findPartFromInternalRef(ref);
+                findPartFromInternalRef(ref, bike);
                 ref = "MechanicalSTI_1";
             }
             case 2 -> {
@@ -161,25 +152,23 @@ public class ShimanoGroupsetService {
                 } else if (bike.getNumberOfRearGears() == 9) {
                     ref = "MechanicalSTI_3_9";
                 } else {
-                    bike.setNumberOfRearGears(10);
                     ref = "MechanicalSTI_3_10";
                     warnLogger.log("3 by Shimano Gears are restricted to a maximum of 10 at the back");
                 }
             }
         }
         if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            bike.addError(new Error(component, method, ref));
         }
     }
 
-    private void getHydraulicSTIShifters() {
+    private void getHydraulicSTIShifters(BikeContext bike) {
         String ref = "";
         String component = "Hydraulic-Shifter";
         String method = "getHydraulicSTIShifters";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         if (bike.getNumberOfRearGears() == 10) {
             ref = "HydraulicSTI_10";
         } else if (bike.getNumberOfRearGears() == 11) {
@@ -189,7 +178,7 @@ public class ShimanoGroupsetService {
         } else {
             ref = "HydraulicSTI_9";
         }
-        findPartFromInternalRef("Right-" + ref);
+        findPartFromInternalRef("Right-" + ref, bike);
         ref = "";
         if (bike.getNumberOfFrontGears() == 1) {
             ref = "HydraulicSTI_1";
@@ -201,13 +190,13 @@ public class ShimanoGroupsetService {
             ref = "";
         }
         if (!ref.isEmpty()) {
-            findPartFromInternalRef("Left-" + ref);
+            findPartFromInternalRef("Left-" + ref, bike);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            bike.addError(new Error(component, method, ref));
         }
     }
 
-    private void getLeverShifters() {
+    private void getLeverShifters(BikeContext bike) {
         String ref;
         String component = "Trigger-Shifter";
         String method = "getTriggerShifters";
@@ -221,9 +210,9 @@ public class ShimanoGroupsetService {
                 default -> ref = "";
             }
             if (!ref.isEmpty()) {
-                findPartFromInternalRef(ref);
+                findPartFromInternalRef(ref, bike);
             } else {
-                bikeParts.getErrorMessages().add(new Error(component, method, ref));
+                bike.addError(new Error(component, method, ref));
             }
         }
         if (bike.getNumberOfFrontGears() > 1) {
@@ -232,16 +221,15 @@ public class ShimanoGroupsetService {
             } else {
                 ref = "TriggerShifter_2";
             }
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         }
     }
 
-    private void getChainring() {
+    private void getChainring(BikeContext bike) {
         String ref = "";
         String component = "Chainring";
         String method = "getChainring";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch ((int) bike.getNumberOfFrontGears()) {
             //Could not find active site for 1 by components
             //Below links are useless, have taken out option for Frontend selection
@@ -272,25 +260,23 @@ public class ShimanoGroupsetService {
                     ref = "ChainSet_3_9";
                 } else if (bike.getNumberOfRearGears() == 10) {
                     ref = "ChainSet_3_10";
-                    bike.setNumberOfRearGears(10);
                 } else {
                     ref = "ChainSet_3";
                 }
             }
         }
         if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
+            bike.addError(new Error(component, method, ref));
         }
     }
 
-    private void getCassette() {
+    private void getCassette(BikeContext bike) {
         String ref = "";
         String component = "Cassette";
         String method = "getCassette";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch ((int) bike.getNumberOfRearGears()) {
             case 8 -> ref = "Cassette_8";
             case 9 -> ref = "Cassette_9";
@@ -299,15 +285,14 @@ public class ShimanoGroupsetService {
             case 12 -> ref = "Cassette_12";
             default -> ref = "Cassette_1";
         }
-        findPartFromInternalRef(ref);
+        findPartFromInternalRef(ref, bike);
     }
 
-    private void getChain() {
+    private void getChain(BikeContext bike) {
         String ref = "";
         String component = "Chain";
         String method = "getChain";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch ((int) bike.getNumberOfRearGears()) {
             case 8 -> ref = "Chain_8";
             case 9 -> ref = "Chain_9";
@@ -316,15 +301,14 @@ public class ShimanoGroupsetService {
             case 12 -> ref = "Chain_12";
             default -> ref = "Chain_1";
         }
-        findPartFromInternalRef(ref);
+        findPartFromInternalRef(ref, bike);
     }
 
-    private void getRearDerailleur() {
+    private void getRearDerailleur(BikeContext bike) {
         String ref = "";
         String component = "Rear-Derailleur";
         String method = "getRearDerailleur";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         if (bike.getNumberOfRearGears() > 1) {
             switch ((int) bike.getNumberOfRearGears()) {
                 case 8 -> ref = "RDerailleur_8";
@@ -335,19 +319,18 @@ public class ShimanoGroupsetService {
                 default -> ref = "";
             }
             if (!ref.isEmpty()) {
-                findPartFromInternalRef(ref);
+                findPartFromInternalRef(ref, bike);
             } else {
-                bikeParts.getErrorMessages().add(new Error(component, method, ref));
+                bike.addError(new Error(component, method, ref));
             }
         }
     }
 
-    private void getFrontDerailleur() {
+    private void getFrontDerailleur(BikeContext bike) {
         String ref = "";
         String component = "Front-Derailleur";
         String method = "getFrontDerailleur";
         infoLogger.log("Getting Parts for: " + component);
-        bike = fullBikeService.getBike();
         switch ((int) bike.getNumberOfFrontGears()) {
             case 1 -> {
                 ref = "FDerailleur_1";
@@ -373,32 +356,28 @@ public class ShimanoGroupsetService {
             }
         }
         if (!ref.isEmpty()) {
-            findPartFromInternalRef(ref);
+            findPartFromInternalRef(ref, bike);
         } else {
-            bikeParts.getErrorMessages().add(new Error(component, method, ref));
-        }
-    }
-
-    public void findPartFromInternalRef(String internalRef) {
-        infoLogger.log("Finding part: " + internalRef + ", from links file.");
-        try {
-            Optional<Part> part = retrievePartFromLinks(internalRef);
-            part.ifPresentOrElse(p -> {
-                        if (p.getName() == null || p.getName().isEmpty()) {
-                            p.setName("Sorry no link found.");
-                        }
-                        bikeParts.getListOfParts().add(p);
-                        infoLogger.log("Part found and added to bikeParts: " + p);
-                    },
-                    () -> errorLogger.log("No Part was found on File for Internal Ref: " + internalRef));
-        } catch (IOException e) {
-            errorLogger.log("An IOException occurred from method: readLinksFile!!See error message: " + e.getMessage() + "!!From: " + getClass());
+            bike.addError(new Error(component, method, ref));
         }
     }
 
-    private Optional<Part> retrievePartFromLinks(String ref) throws IOException {
-        LinkedList<Part> parts = om.readValue(new File(LINKS_FILE), new TypeReference<>() {
-        });
-        return parts.stream().filter(p -> p.getInternalReference().equals(ref)).findFirst();
+    /**
+     * Finds the Part with the passed-in internal reference in the Parts Catalog and adds it to the Bike Parts on the passed-in context.
+     *
+     * @param internalRef the internal reference
+     * @param bike        the context of the bike being quoted
+     */
+    public void findPartFromInternalRef(String internalRef, BikeContext bike) {
+        infoLogger.log("Finding part: " + internalRef + ", from Parts Catalog.");
+        Optional<Part> part = partsCatalogService.findPart(internalRef);
+        part.ifPresentOrElse(p -> {
+                    if (p.getName() == null || p.getName().isEmpty()) {
+                        p.setName("Sorry no link found.");
+                    }
+                    bike.addPart(p);
+                    infoLogger.log("Part found and added to bikeParts: " + p);
+                },
+                () -> errorLogger.log("No Part was found in Catalog for Internal Ref: " + internalRef));
     }
-}
\ No newline at end of file
+}
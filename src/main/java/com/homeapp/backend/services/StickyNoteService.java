@@ -23,18 +23,24 @@ public class StickyNoteService {
     private static final ObjectMapper om = new ObjectMapper();
     private static final String JSON_NOTES_FILE = "src/main/resources/notes.json";
     private static final String JSON_NOTES_FILE_BACKUP = "src/main/resources/notes_backup.json";
-    private final InfoLogger infoLogger = new InfoLogger();
-    private final WarnLogger warnLogger = new WarnLogger();
-    private final ErrorLogger errorLogger = new ErrorLogger();
+    private static final String ID_SEQUENCE = "notes";
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
+    private final WarnLogger warnLogger = WarnLogger.getInstance();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final IdAllocatorService idAllocator;
     private List<StickyNote> notesList;
 
     /**
      * Instantiates a new Sticky Note Service.
-     * Reads all the notes located on File.
+     * Reads all the notes located on File, and new note IDs carry on from the highest ID of any note read.
+     *
+     * @param idAllocator the id allocator
      */
     @Autowired
-    public StickyNoteService() {
+    public StickyNoteService(IdAllocatorService idAllocator) {
+        this.idAllocator = idAllocator;
         this.notesList = readNotesFile();
+        idAllocator.recover(ID_SEQUENCE, notesList.stream().mapToLong(StickyNote::getStickyNoteId).max().orElse(0));
     }
 
     private List<StickyNote> readNotesFile() {
@@ -118,7 +124,7 @@ public class StickyNoteService {
             warnLogger.log("Sticky note with this title already exists, not creating a new one!");
         } else {
             warnLogger.log("Adding Sticky Note with title: " + note.getTitle());
-            long newId = notesList.size() + 1;
+            long newId = idAllocator.next(ID_SEQUENCE);
             note.setStickyNoteId(newId);
             notesList.add(note);
             writeNotesToFile(notesList);
@@ -12,7 +12,7 @@ import java.io.IOException;
  */
 @Service
 public class ExceptionHandler {
-    private ErrorLogger errorLogger = new ErrorLogger();
+    private ErrorLogger errorLogger = ErrorLogger.getInstance();
 
     /**
      * Instantiates a new Exception handler.
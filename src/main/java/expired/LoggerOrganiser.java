@@ -20,8 +20,8 @@ public class LoggerOrganiser {
     static final String today = LocalDate.now().format(FILE_NAME_FORMATTER);
     private final String LOGS_DIRECTORY_PATH = "src/main/logs/";
     private final String EXPIRED_DIRECTORY_PATH = "src/main/logs/expired";
-    private final ErrorLogger errorLogger = new ErrorLogger();
-    private final InfoLogger infoLogger = new InfoLogger();
+    private final ErrorLogger errorLogger = ErrorLogger.getInstance();
+    private final InfoLogger infoLogger = InfoLogger.getInstance();
 
     /**
      * Instantiates a new Logger organiser.